@@ -0,0 +1,405 @@
+package com.rwtool.benchmark;
+
+import com.rwtool.RwtoolApplication;
+import com.rwtool.controller.AuditLogController;
+import com.rwtool.dto.AuditLogSummary;
+import com.rwtool.service.UserActivityLogService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the audit log: many threads write through UserActivityLogService.logActivity
+ * while others run the AuditLogController /filter and /search queries against a seeded
+ * table. The controller beans are called directly, so HTTP, security and JSON are left out.
+ *
+ * Runs on a file-backed H2 database in PostgreSQL mode by default; pass the usual
+ * spring.datasource.* arguments to point it at a real PostgreSQL instead. Reports insert
+ * throughput and latency, per-query p50/p99, and sampled lock and connection pool waits.
+ *
+ *   java -Xmx4g -cp target/benchmarks.jar com.rwtool.benchmark.AuditLoadTest \
+ *       --rows=10000000 --writers=32 --readers=8 --seconds=120 --dbDir=/data/audit-bench
+ *
+ * Options (defaults in brackets):
+ *   --rows           rows in user_activity_logs before the run, topped up if short [1000000]
+ *   --users          distinct user emails in the seeded rows [5000]
+ *   --days           seeded timestamps are spread over this many days up to now [365]
+ *   --writers        threads calling logActivity [16]
+ *   --readers        threads running /filter and /search queries [4]
+ *   --searchRatio    share of reader queries that are /search [0.25]
+ *   --warmupSeconds  load before measuring starts [10]
+ *   --seconds        measured load [60]
+ *   --dbDir          H2 database directory, kept for reuse; a temp directory (deleted afterwards) if unset
+ *   --out            report file [audit-load.json]
+ * Any other --key=value argument is passed to the application.
+ */
+public class AuditLoadTest {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_activity_logs (timestamp, user_email, user_name, user_role, action, details, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] ACTIONS = {
+            "USER_LOGIN", "USER_LOGIN", "USER_LOGIN", "USER_LOGOUT", "USER_LOGOUT",
+            "SUBSCRIPTION_REQUEST", "USER_APPROVED", "USER_REJECTED", "USER_SIGNUP", "LOGIN_FAILED"};
+
+    private static final int SEED_BATCH = 10000;
+
+    private static volatile boolean measuring;
+    private static volatile boolean stopped;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("rows", "1000000");
+        options.put("users", "5000");
+        options.put("days", "365");
+        options.put("writers", "16");
+        options.put("readers", "4");
+        options.put("searchRatio", "0.25");
+        options.put("warmupSeconds", "10");
+        options.put("seconds", "60");
+        options.put("dbDir", "");
+        options.put("out", "audit-load.json");
+
+        List<String> appArgs = new ArrayList<>();
+        HarnessSupport.parseArguments(args, options, appArgs);
+        boolean tempDbDir = options.get("dbDir").isEmpty();
+        Path dbDir = tempDbDir ? Files.createTempDirectory("rwtool-audit-") : Paths.get(options.get("dbDir"));
+        List<String> bootArgs = HarnessSupport.h2Arguments("jdbc:h2:file:" + dbDir.toAbsolutePath().resolve("audit"));
+        bootArgs.addAll(appArgs);
+
+        int users = Integer.parseInt(options.get("users"));
+        int days = Integer.parseInt(options.get("days"));
+        int writers = Integer.parseInt(options.get("writers"));
+        int readers = Integer.parseInt(options.get("readers"));
+        double searchRatio = Double.parseDouble(options.get("searchRatio"));
+
+        try (ConfigurableApplicationContext context = new SpringApplication(RwtoolApplication.class)
+                .run(bootArgs.toArray(new String[0]))) {
+            UserActivityLogService auditLogService = context.getBean(UserActivityLogService.class);
+            AuditLogController auditLogController = context.getBean(AuditLogController.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            DataSource dataSource = context.getBean(DataSource.class);
+
+            long seedStart = System.nanoTime();
+            long seeded = seed(jdbcTemplate, Long.parseLong(options.get("rows")), users, days);
+            double seedSeconds = (System.nanoTime() - seedStart) / 1e9;
+
+            Latencies[] inserts = new Latencies[writers];
+            Latencies[] filters = new Latencies[readers];
+            Latencies[] searches = new Latencies[readers];
+            AtomicLong insertErrors = new AtomicLong();
+            AtomicLong queryErrors = new AtomicLong();
+            AtomicLong filterRows = new AtomicLong();
+            AtomicLong searchRows = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+
+            for (int w = 0; w < writers; w++) {
+                Latencies latencies = inserts[w] = new Latencies();
+                threads.add(new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (!stopped) {
+                        int user = random.nextInt(users);
+                        String action = ACTIONS[random.nextInt(ACTIONS.length)];
+                        long t0 = System.nanoTime();
+                        try {
+                            auditLogService.logActivity(email(user), "User " + user, role(user), action,
+                                    details(action, random), random.nextInt(100) < 3 ? "FAILED" : "SUCCESS");
+                            if (measuring) latencies.add(System.nanoTime() - t0);
+                        } catch (RuntimeException e) {
+                            insertErrors.incrementAndGet();
+                        }
+                    }
+                }, "audit-writer-" + w));
+            }
+            for (int r = 0; r < readers; r++) {
+                Latencies filterLatencies = filters[r] = new Latencies();
+                Latencies searchLatencies = searches[r] = new Latencies();
+                threads.add(new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (!stopped) {
+                        boolean search = random.nextDouble() < searchRatio;
+                        long t0 = System.nanoTime();
+                        try {
+                            ResponseEntity<List<AuditLogSummary>> response = search
+                                    ? auditLogController.searchLogs(email(random.nextInt(users)))
+                                    : auditLogController.getLogsWithFilters(
+                                            pick(random, null, "All Users", "ADMIN", "USER"),
+                                            pick(random, null, "All Actions", ACTIONS[random.nextInt(ACTIONS.length)]),
+                                            pick(random, null, "All Status", "SUCCESS", "FAILED"),
+                                            random.nextInt(10) < 7 ? "today" : "7days");
+                            if (measuring) {
+                                (search ? searchLatencies : filterLatencies).add(System.nanoTime() - t0);
+                                (search ? searchRows : filterRows).addAndGet(response.getBody().size());
+                            }
+                        } catch (RuntimeException e) {
+                            queryErrors.incrementAndGet();
+                        }
+                    }
+                }, "audit-reader-" + r));
+            }
+
+            WaitSampler sampler = new WaitSampler(dataSource);
+            Thread samplerThread = new Thread(sampler, "audit-wait-sampler");
+            threads.forEach(Thread::start);
+            samplerThread.start();
+
+            TimeUnit.SECONDS.sleep(Long.parseLong(options.get("warmupSeconds")));
+            System.gc();
+            HarnessSupport.resetPeakHeap();
+            long gcCountBefore = HarnessSupport.gcCount();
+            long gcTimeBefore = HarnessSupport.gcTime();
+            long start = System.nanoTime();
+            measuring = true;
+            TimeUnit.SECONDS.sleep(Long.parseLong(options.get("seconds")));
+            measuring = false;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            stopped = true;
+            for (Thread thread : threads) thread.join();
+            samplerThread.join();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("options", options);
+            report.put("jvm", HarnessSupport.jvmInfo());
+            Map<String, Object> database = new LinkedHashMap<>();
+            try (Connection connection = dataSource.getConnection()) {
+                database.put("product", connection.getMetaData().getDatabaseProductName());
+                database.put("version", connection.getMetaData().getDatabaseProductVersion());
+            }
+            if (dataSource instanceof HikariDataSource hikari) {
+                database.put("poolSize", hikari.getMaximumPoolSize());
+            }
+            database.put("rowsBeforeRun", seeded);
+            database.put("seedSeconds", seedSeconds);
+            report.put("database", database);
+
+            Map<String, Object> insertReport = latencyReport(Latencies.merge(inserts), seconds, 1e3, "Micros");
+            insertReport.put("errors", insertErrors.get());
+            report.put("inserts", insertReport);
+
+            long[] filterNanos = Latencies.merge(filters);
+            long[] searchNanos = Latencies.merge(searches);
+            Map<String, Object> queries = new LinkedHashMap<>();
+            Map<String, Object> filterReport = latencyReport(filterNanos, seconds, 1e6, "Millis");
+            filterReport.put("meanRows", filterNanos.length == 0 ? 0 : filterRows.get() / (double) filterNanos.length);
+            queries.put("filter", filterReport);
+            Map<String, Object> searchReport = latencyReport(searchNanos, seconds, 1e6, "Millis");
+            searchReport.put("meanRows", searchNanos.length == 0 ? 0 : searchRows.get() / (double) searchNanos.length);
+            queries.put("search", searchReport);
+            queries.put("errors", queryErrors.get());
+            report.put("queries", queries);
+
+            report.put("lockWaits", sampler.lockWaits.report());
+            report.put("connectionWaits", sampler.connectionWaits.report());
+
+            Map<String, Object> memory = new LinkedHashMap<>();
+            memory.put("peakHeapBytes", HarnessSupport.peakHeap());
+            memory.put("gcCount", HarnessSupport.gcCount() - gcCountBefore);
+            memory.put("gcTimeMs", HarnessSupport.gcTime() - gcTimeBefore);
+            report.put("heap", memory);
+
+            Path out = Paths.get(options.get("out"));
+            HarnessSupport.writeReport(out, report);
+            System.out.printf("%d rows: %.0f inserts/sec (p99 %.0fus), filter p99 %.1fms, search p99 %.1fms. Report: %s%n",
+                    seeded, insertReport.get("perSec"), insertReport.get("p99Micros"),
+                    filterReport.get("p99Millis"), searchReport.get("p99Millis"), out.toAbsolutePath());
+        } finally {
+            if (tempDbDir) HarnessSupport.deleteRecursively(dbDir);
+        }
+    }
+
+    /**
+     * Top the table up to the requested row count with JDBC batches, so an existing dbDir can
+     * be reused across runs without seeding 10M rows again. Returns the row count.
+     */
+    private static long seed(JdbcTemplate jdbcTemplate, long rows, int users, int days) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activity_logs", Long.class);
+        long count = existing != null ? existing : 0;
+        long now = System.currentTimeMillis();
+        long spanMs = TimeUnit.DAYS.toMillis(days);
+        long lastReported = count;
+        while (count < rows) {
+            int batch = (int) Math.min(SEED_BATCH, rows - count);
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int user = random.nextInt(users);
+                    String action = ACTIONS[random.nextInt(ACTIONS.length)];
+                    ps.setTimestamp(1, new Timestamp(now - (long) (random.nextDouble() * spanMs)));
+                    ps.setString(2, email(user));
+                    ps.setString(3, "User " + user);
+                    ps.setString(4, role(user));
+                    ps.setString(5, action);
+                    ps.setString(6, details(action, random));
+                    ps.setString(7, random.nextInt(100) < 3 ? "FAILED" : "SUCCESS");
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch;
+                }
+            });
+            count += batch;
+            if (count - lastReported >= 1_000_000 || count == rows) {
+                System.out.printf("Seeded %d/%d rows%n", count, rows);
+                lastReported = count;
+            }
+        }
+        return count;
+    }
+
+    private static String email(int user) {
+        return String.format("user%05d@example.com", user);
+    }
+
+    // One user in twenty is an admin
+    private static String role(int user) {
+        return user % 20 == 0 ? "ADMIN" : "USER";
+    }
+
+    private static String details(String action, ThreadLocalRandom random) {
+        return switch (action) {
+            case "SUBSCRIPTION_REQUEST", "USER_APPROVED", "USER_REJECTED" -> "Domain D" + random.nextInt(200);
+            case "LOGIN_FAILED" -> "Invalid credentials";
+            default -> null;
+        };
+    }
+
+    @SafeVarargs
+    private static <T> T pick(ThreadLocalRandom random, T... values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Map<String, Object> latencyReport(long[] sortedNanos, double seconds, double unit, String suffix) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("count", sortedNanos.length);
+        report.put("perSec", sortedNanos.length / seconds);
+        report.put("p50" + suffix, HarnessSupport.percentile(sortedNanos, 0.50) / unit);
+        report.put("p99" + suffix, HarnessSupport.percentile(sortedNanos, 0.99) / unit);
+        report.put("max" + suffix, HarnessSupport.percentile(sortedNanos, 1.0) / unit);
+        return report;
+    }
+
+    /** Per-thread latency log; merged and sorted once the run is over. */
+    static class Latencies {
+        private long[] nanos = new long[4096];
+        private int size;
+
+        void add(long value) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = value;
+        }
+
+        static long[] merge(Latencies[] all) {
+            int total = 0;
+            for (Latencies l : all) total += l.size;
+            long[] merged = new long[total];
+            int offset = 0;
+            for (Latencies l : all) {
+                System.arraycopy(l.nanos, 0, merged, offset, l.size);
+                offset += l.size;
+            }
+            Arrays.sort(merged);
+            return merged;
+        }
+    }
+
+    /**
+     * Samples, every 50ms on a dedicated connection, how many sessions are blocked on a row or
+     * table lock and how many threads are queued for a pool connection.
+     */
+    static class WaitSampler implements Runnable {
+        private static final long INTERVAL_MS = 50;
+
+        final Gauge lockWaits = new Gauge();
+        final Gauge connectionWaits = new Gauge();
+        private final DataSource dataSource;
+
+        WaitSampler(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public void run() {
+            HikariPoolMXBean pool = dataSource instanceof HikariDataSource hikari ? hikari.getHikariPoolMXBean() : null;
+            try (Connection connection = dataSource.getConnection()) {
+                String sql = lockWaitQuery(connection.getMetaData().getDatabaseProductName());
+                try (PreparedStatement statement = sql != null ? connection.prepareStatement(sql) : null) {
+                    while (!stopped) {
+                        if (measuring) {
+                            if (statement != null) {
+                                try (ResultSet rs = statement.executeQuery()) {
+                                    if (rs.next()) lockWaits.sample(rs.getInt(1));
+                                }
+                            }
+                            if (pool != null) connectionWaits.sample(pool.getThreadsAwaitingConnection());
+                        }
+                        Thread.sleep(INTERVAL_MS);
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Lock wait sampling stopped: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static String lockWaitQuery(String product) {
+            if ("H2".equals(product)) {
+                return "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL";
+            }
+            if ("PostgreSQL".equals(product)) {
+                return "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'";
+            }
+            return null;
+        }
+    }
+
+    static class Gauge {
+        private long samples;
+        private long samplesWithWaiters;
+        private long total;
+        private long max;
+
+        void sample(long waiting) {
+            samples++;
+            if (waiting > 0) samplesWithWaiters++;
+            total += waiting;
+            max = Math.max(max, waiting);
+        }
+
+        Map<String, Object> report() {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("samples", samples);
+            report.put("samplesWithWaiters", samplesWithWaiters);
+            report.put("meanWaiters", samples == 0 ? 0 : total / (double) samples);
+            report.put("maxWaiters", max);
+            return report;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.rwtool.benchmark;
+
+import com.rwtool.RwtoolApplication;
+import com.rwtool.dto.AuditLogSummary;
+import com.rwtool.repository.UserActivityLogRepository;
+import com.rwtool.repository.UserActivityLogSpecifications;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency and query plan of the audit log filter query for every combination of the role,
+ * action and status filters, each set to its most common value. It only reads, so point it at
+ * a populated database: either an H2 directory seeded by AuditLoadTest (--dbDir) or a real
+ * PostgreSQL through the usual spring.datasource.* arguments.
+ *
+ *   java -cp target/benchmarks.jar com.rwtool.benchmark.AuditQueryPlanHarness \
+ *       --dbDir=/data/audit-bench --iterations=50 --days=30
+ *
+ * Options (defaults in brackets):
+ *   --iterations     runs of each query [20]
+ *   --days           queried time range, up to now [30]
+ *   --dbDir          H2 database directory written by AuditLoadTest; the application's own
+ *                    datasource settings if unset
+ *   --out            report file [audit-query-plans.json]
+ * Any other --key=value argument is passed to the application.
+ */
+public class AuditQueryPlanHarness {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("iterations", "20");
+        options.put("days", "30");
+        options.put("dbDir", "");
+        options.put("out", "audit-query-plans.json");
+
+        List<String> appArgs = new ArrayList<>();
+        HarnessSupport.parseArguments(args, options, appArgs);
+        List<String> bootArgs;
+        if (options.get("dbDir").isEmpty()) {
+            bootArgs = new ArrayList<>(List.of("--server.port=0", "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN", "--logging.level.com.rwtool=WARN"));
+        } else {
+            Path dbDir = Paths.get(options.get("dbDir"));
+            bootArgs = HarnessSupport.h2Arguments("jdbc:h2:file:" + dbDir.toAbsolutePath().resolve("audit"));
+        }
+        bootArgs.addAll(appArgs);
+
+        int iterations = Math.max(1, Integer.parseInt(options.get("iterations")));
+        int days = Integer.parseInt(options.get("days"));
+
+        try (ConfigurableApplicationContext context = new SpringApplication(RwtoolApplication.class)
+                .run(bootArgs.toArray(new String[0]))) {
+            UserActivityLogRepository repository = context.getBean(UserActivityLogRepository.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            String role = mostCommon(jdbcTemplate, "user_role");
+            String action = mostCommon(jdbcTemplate, "action");
+            String status = mostCommon(jdbcTemplate, "status");
+            Instant end = Instant.now();
+            Instant start = end.minus(days, ChronoUnit.DAYS);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("options", options);
+            report.put("jvm", HarnessSupport.jvmInfo());
+            report.put("database", Map.of(
+                    "rows", repository.count(),
+                    "role", role,
+                    "action", action,
+                    "status", status));
+
+            // Every subset of {role, action, status}
+            List<Map<String, Object>> queries = new ArrayList<>();
+            for (int mask = 0; mask < 8; mask++) {
+                String r = (mask & 1) != 0 ? role : null;
+                String a = (mask & 2) != 0 ? action : null;
+                String s = (mask & 4) != 0 ? status : null;
+
+                long[] nanos = new long[iterations];
+                int rows = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long t0 = System.nanoTime();
+                    List<AuditLogSummary> result = repository.findSummaries(
+                            UserActivityLogSpecifications.withFilters(r, a, s, start, end),
+                            Sort.by(Sort.Direction.DESC, "timestamp"), 0);
+                    nanos[i] = System.nanoTime() - t0;
+                    rows = result.size();
+                }
+                Arrays.sort(nanos);
+
+                Map<String, Object> query = new LinkedHashMap<>();
+                query.put("role", r != null);
+                query.put("action", a != null);
+                query.put("status", s != null);
+                query.put("rows", rows);
+                query.put("p50Millis", HarnessSupport.percentile(nanos, 0.50) / 1e6);
+                query.put("p95Millis", HarnessSupport.percentile(nanos, 0.95) / 1e6);
+                query.put("maxMillis", nanos[nanos.length - 1] / 1e6);
+                query.put("plan", explain(jdbcTemplate, r, a, s, start, end));
+                queries.add(query);
+                System.out.printf("filters[role=%s, action=%s, status=%s] rows=%d p50=%.2fms p95=%.2fms%n",
+                        r != null, a != null, s != null, rows,
+                        query.get("p50Millis"), query.get("p95Millis"));
+            }
+            report.put("queries", queries);
+
+            Path out = Paths.get(options.get("out"));
+            HarnessSupport.writeReport(out, report);
+            System.out.printf("Plans and latencies for %d filter combinations. Report: %s%n",
+                    queries.size(), out.toAbsolutePath());
+        }
+    }
+
+    private static List<String> explain(JdbcTemplate jdbcTemplate, String role, String action, String status,
+                                        Instant start, Instant end) {
+        StringBuilder sql = new StringBuilder(
+                "EXPLAIN ANALYZE SELECT id, timestamp, user_email, user_name, user_role, action, details, status " +
+                "FROM user_activity_logs WHERE timestamp BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.from(start));
+        args.add(Timestamp.from(end));
+        if (role != null) { sql.append(" AND user_role = ?"); args.add(role); }
+        if (action != null) { sql.append(" AND action = ?"); args.add(action); }
+        if (status != null) { sql.append(" AND status = ?"); args.add(status); }
+        sql.append(" ORDER BY timestamp DESC");
+        return jdbcTemplate.queryForList(sql.toString(), String.class, args.toArray());
+    }
+
+    private static String mostCommon(JdbcTemplate jdbcTemplate, String column) {
+        List<String> values = jdbcTemplate.queryForList(
+                "SELECT " + column + " FROM user_activity_logs GROUP BY " + column +
+                " ORDER BY COUNT(*) DESC LIMIT 1", String.class);
+        return values.isEmpty() ? "" : values.get(0);
+    }
+}
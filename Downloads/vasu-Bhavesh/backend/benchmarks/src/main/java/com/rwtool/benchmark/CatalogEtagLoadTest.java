@@ -0,0 +1,134 @@
+package com.rwtool.benchmark;
+
+import com.rwtool.RwtoolApplication;
+import com.rwtool.model.Domain;
+import com.rwtool.service.DomainService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bytes sent and server CPU for repeated GET /api/domains in three modes: plain, gzip
+ * (Accept-Encoding) and conditional (If-None-Match with the current ETag, answered 304). Boots
+ * the application on an in-memory H2 database and seeds the domain catalog first. Finally
+ * checks that a change to the catalog turns the old tag's 304 into a 200.
+ *
+ *   java -cp target/benchmarks.jar com.rwtool.benchmark.CatalogEtagLoadTest --domains=300 --requests=300
+ *
+ * Options (defaults in brackets):
+ *   --domains        domains seeded before the run [300]
+ *   --requests       GETs per mode [300]
+ *   --warmup         GETs before measuring [200]
+ *   --out            report file [catalog-etag.json]
+ * Any other --key=value argument is passed to the application.
+ *
+ * Server CPU is the CPU time of Tomcat's request threads (http-nio-*), so the client in this
+ * process is left out.
+ */
+public class CatalogEtagLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("domains", "300");
+        options.put("requests", "300");
+        options.put("warmup", "200");
+        options.put("out", "catalog-etag.json");
+
+        List<String> appArgs = HarnessSupport.h2Arguments("jdbc:h2:mem:rwetag");
+        HarnessSupport.parseArguments(args, options, appArgs);
+        int domains = Integer.parseInt(options.get("domains"));
+        int requests = Integer.parseInt(options.get("requests"));
+
+        try (ConfigurableApplicationContext context = new SpringApplication(RwtoolApplication.class)
+                .run(appArgs.toArray(new String[0]))) {
+            DomainService domainService = context.getBean(DomainService.class);
+            for (int i = 1; i <= domains; i++) {
+                domainService.addDomain(new Domain(null, "Domain " + i,
+                        "Reporting domain number " + i + " with a reasonably descriptive text"));
+            }
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/domains");
+            HttpClient client = HttpClient.newHttpClient();
+            for (int i = 0; i < Integer.parseInt(options.get("warmup")); i++) {
+                get(client, uri);
+            }
+            String etag = get(client, uri).headers().firstValue("ETag").orElse("");
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("options", options);
+            report.put("jvm", HarnessSupport.jvmInfo());
+            report.put("etag", etag);
+
+            Map<String, Object> modes = new LinkedHashMap<>();
+            modes.put("plain", run(client, uri, requests));
+            modes.put("gzip", run(client, uri, requests, "Accept-Encoding", "gzip"));
+            modes.put("ifNoneMatch", run(client, uri, requests, "If-None-Match", etag));
+            report.put("modes", modes);
+
+            domainService.addDomain(new Domain(null, "Late", "Added after the tag was taken"));
+            int afterChange = get(client, uri, "If-None-Match", etag).statusCode();
+            report.put("statusAfterChange", afterChange);
+
+            Path out = Paths.get(options.get("out"));
+            HarnessSupport.writeReport(out, report);
+            modes.forEach((mode, result) -> System.out.printf("%-12s %s%n", mode, result));
+            System.out.printf("Old tag after a change: %d (expected 200). Report: %s%n",
+                    afterChange, out.toAbsolutePath());
+        }
+    }
+
+    private static Map<String, Object> run(HttpClient client, URI uri, int requests, String... headers)
+            throws Exception {
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        long bytes = 0;
+        long cpuBefore = serverCpuNanos();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            HttpResponse<byte[]> response = get(client, uri, headers);
+            bytes += response.body().length;
+            statuses.merge(response.statusCode(), 1, Integer::sum);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("bytes", bytes);
+        result.put("serverCpuMs", (serverCpuNanos() - cpuBefore) / 1e6);
+        result.put("wallMs", (System.nanoTime() - start) / 1e6);
+        result.put("statuses", statuses);
+        return result;
+    }
+
+    // The body as sent: the JDK client does not decompress, so gzip bytes are on-the-wire bytes
+    private static HttpResponse<byte[]> get(HttpClient client, URI uri, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static long serverCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null || !info.getThreadName().startsWith("http-nio-")) continue;
+            total += Math.max(0, threads.getThreadCpuTime(info.getThreadId()));
+        }
+        return total;
+    }
+}
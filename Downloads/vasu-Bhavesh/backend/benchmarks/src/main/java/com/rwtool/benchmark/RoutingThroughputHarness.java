@@ -0,0 +1,337 @@
+package com.rwtool.benchmark;
+
+import com.rwtool.RwtoolApplication;
+import com.rwtool.repository.RoutingLogRepository;
+import com.rwtool.service.RoutingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end throughput of local routing (RoutingService.runRoutingNow with
+ * app.routing.mode=local) on a given disk.
+ *
+ * Generates synthetic prefixed files in baseDir/incoming, boots the application against an
+ * in-memory H2 database, routes everything once and writes a JSON report with files/sec,
+ * percentiles of each file's time from discovery to its routing log row (the
+ * rwtool.routing.file.time timer), percentiles of the interval between completed files, per
+ * pipeline stage service time, routing log inserts/sec and heap/GC figures.
+ *
+ *   java -cp target/benchmarks.jar com.rwtool.benchmark.RoutingThroughputHarness \
+ *       --files=20000 --sizes=1KB:70,64KB:25,1MB:5 --skew=1.2 --baseDir=/mnt/disk/rw --out=routing.json
+ *
+ * Options (defaults in brackets):
+ *   --files          number of files to generate [10000]
+ *   --sizes          size:weight list [1KB:70,64KB:25,1MB:5]
+ *   --prefixes       comma separated file prefixes [Finance,Risk,Trading,HR,Operations,Compliance,Treasury,Audit]
+ *   --skew           Zipf exponent over the prefixes, 0 for uniform [1.0]
+ *   --unprefixed     fraction of files without a '_' delimiter [0.0]
+ *   --seed           random seed [42]
+ *   --baseDir        directory to route in, a temp directory (deleted afterwards) if unset
+ *   --out            report file [routing-throughput.json]
+ * Any other --key=value argument is passed to the application, e.g. to use another database.
+ */
+public class RoutingThroughputHarness {
+
+    private static final String FILE_TIMER = "rwtool.routing.file.time";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("files", "10000");
+        options.put("sizes", "1KB:70,64KB:25,1MB:5");
+        options.put("prefixes", "Finance,Risk,Trading,HR,Operations,Compliance,Treasury,Audit");
+        options.put("skew", "1.0");
+        options.put("unprefixed", "0.0");
+        options.put("seed", "42");
+        options.put("baseDir", "");
+        options.put("out", "routing-throughput.json");
+
+        List<String> appArgs = HarnessSupport.h2Arguments("jdbc:h2:mem:rwbench");
+        appArgs.add("--app.routing.mode=local");
+        // Client-side percentiles over the whole run for the per-file timer
+        appArgs.add("--management.metrics.distribution.percentiles." + FILE_TIMER + "=0.5,0.9,0.99");
+        appArgs.add("--management.metrics.distribution.expiry." + FILE_TIMER + "=1d");
+        appArgs.add("--management.metrics.distribution.buffer-length." + FILE_TIMER + "=1");
+        HarnessSupport.parseArguments(args, options, appArgs);
+
+        int fileCount = Integer.parseInt(options.get("files"));
+        boolean tempBaseDir = options.get("baseDir").isEmpty();
+        Path baseDir = tempBaseDir
+                ? Files.createTempDirectory("rwtool-routing-")
+                : Paths.get(options.get("baseDir"));
+        appArgs.add("--app.storage.local.baseDir=" + baseDir.toAbsolutePath());
+        appArgs.add("--app.routing.journal.path=" + baseDir.resolve(".routing.journal").toAbsolutePath());
+
+        FileGenerator generator = new FileGenerator(
+                parseSizes(options.get("sizes")),
+                options.get("prefixes").split(","),
+                Double.parseDouble(options.get("skew")),
+                Double.parseDouble(options.get("unprefixed")),
+                Long.parseLong(options.get("seed")));
+        long generateStart = System.nanoTime();
+        long bytes = generator.generate(baseDir.resolve("incoming"), fileCount);
+        long generateNanos = System.nanoTime() - generateStart;
+
+        LogTimer timer = new LogTimer(fileCount);
+        SpringApplication application = new SpringApplication(RwtoolApplication.class);
+        application.addInitializers(context -> context.getBeanFactory().addBeanPostProcessor(timer));
+        try (ConfigurableApplicationContext context = application.run(appArgs.toArray(new String[0]))) {
+            RoutingService routingService = context.getBean(RoutingService.class);
+
+            System.gc();
+            HarnessSupport.resetPeakHeap();
+            long gcCountBefore = HarnessSupport.gcCount();
+            long gcTimeBefore = HarnessSupport.gcTime();
+            long allocatedBefore = allocatedBytes();
+
+            timer.start();
+            Map<String, Object> summary = routingService.runRoutingNow();
+            long elapsedNanos = System.nanoTime() - timer.startNanos;
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("baseDir", baseDir.toAbsolutePath().toString());
+            report.put("options", options);
+            report.put("jvm", HarnessSupport.jvmInfo());
+            report.put("generated", Map.of(
+                    "files", fileCount,
+                    "bytes", bytes,
+                    "seconds", generateNanos / 1e9));
+            report.put("summary", summary);
+
+            double seconds = elapsedNanos / 1e9;
+            long[] intervals = timer.intervals();
+            Map<String, Object> throughput = new LinkedHashMap<>();
+            throughput.put("seconds", seconds);
+            throughput.put("filesPerSec", intervals.length / seconds);
+            throughput.put("bytesPerSec", bytes / seconds);
+            report.put("throughput", throughput);
+
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            Timer fileTimer = registry.find(FILE_TIMER).tag("mode", "local").timer();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("count", fileTimer == null ? 0 : fileTimer.count());
+            latency.put("meanMicros", fileTimer == null ? 0 : fileTimer.mean(TimeUnit.MICROSECONDS));
+            if (fileTimer != null) {
+                for (ValueAtPercentile value : fileTimer.takeSnapshot().percentileValues()) {
+                    latency.put(String.format("p%.0fMicros", value.percentile() * 100), value.value(TimeUnit.MICROSECONDS));
+                }
+            }
+            latency.put("maxMicros", fileTimer == null ? 0 : fileTimer.max(TimeUnit.MICROSECONDS));
+            report.put("fileLatency", latency);
+
+            Arrays.sort(intervals);
+            Map<String, Object> interval = new LinkedHashMap<>();
+            interval.put("p50Micros", HarnessSupport.percentile(intervals, 0.50) / 1e3);
+            interval.put("p90Micros", HarnessSupport.percentile(intervals, 0.90) / 1e3);
+            interval.put("p99Micros", HarnessSupport.percentile(intervals, 0.99) / 1e3);
+            interval.put("maxMicros", intervals.length == 0 ? 0 : intervals[intervals.length - 1] / 1e3);
+            report.put("completionInterval", interval);
+
+            Map<String, Object> stages = new LinkedHashMap<>();
+            for (Timer stage : registry.find("rwtool.routing.stage.time").tag("mode", "local").timers()) {
+                Map<String, Object> time = new LinkedHashMap<>();
+                time.put("count", stage.count());
+                time.put("meanMicros", stage.mean(TimeUnit.MICROSECONDS));
+                time.put("maxMicros", stage.max(TimeUnit.MICROSECONDS));
+                time.put("busySeconds", stage.totalTime(TimeUnit.SECONDS));
+                stages.put(stage.getId().getTag("stage"), time);
+            }
+            report.put("stages", stages);
+
+            Map<String, Object> inserts = new LinkedHashMap<>();
+            inserts.put("count", timer.inserts.get());
+            inserts.put("perSec", timer.inserts.get() / seconds);
+            inserts.put("meanMicros", timer.inserts.get() == 0 ? 0 : timer.insertNanos.get() / 1e3 / timer.inserts.get());
+            inserts.put("shareOfElapsed", timer.insertNanos.get() / (double) elapsedNanos);
+            report.put("routingLogInserts", inserts);
+
+            Map<String, Object> memory = new LinkedHashMap<>();
+            memory.put("allocatedBytes", allocatedBytes() - allocatedBefore);
+            memory.put("peakHeapBytes", HarnessSupport.peakHeap());
+            memory.put("gcCount", HarnessSupport.gcCount() - gcCountBefore);
+            memory.put("gcTimeMs", HarnessSupport.gcTime() - gcTimeBefore);
+            report.put("heap", memory);
+
+            Path out = Paths.get(options.get("out"));
+            HarnessSupport.writeReport(out, report);
+            System.out.printf("Routed %d files in %.2fs: %.0f files/sec, file latency p50 %.0fus, p99 %.0fus. Report: %s%n",
+                    intervals.length, seconds, intervals.length / seconds,
+                    latency.getOrDefault("p50Micros", 0.0), latency.getOrDefault("p99Micros", 0.0), out.toAbsolutePath());
+        } finally {
+            if (tempBaseDir) HarnessSupport.deleteRecursively(baseDir);
+        }
+    }
+
+    // Allocation of the routing thread (this one), -1 when the JVM does not expose it
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    static long[][] parseSizes(String spec) {
+        String[] entries = spec.split(",");
+        long[][] sizes = new long[entries.length][2];
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].trim().split(":");
+            sizes[i][0] = parseBytes(parts[0]);
+            sizes[i][1] = parts.length > 1 ? Long.parseLong(parts[1]) : 1;
+        }
+        return sizes;
+    }
+
+    private static long parseBytes(String value) {
+        String v = value.trim().toUpperCase();
+        long unit = 1;
+        if (v.endsWith("KB")) { unit = 1024; v = v.substring(0, v.length() - 2); }
+        else if (v.endsWith("MB")) { unit = 1024 * 1024; v = v.substring(0, v.length() - 2); }
+        else if (v.endsWith("B")) { v = v.substring(0, v.length() - 1); }
+        return Long.parseLong(v) * unit;
+    }
+
+    /**
+     * Writes the synthetic incoming files. Sizes are drawn from the weighted size list and
+     * prefixes from a Zipf distribution, so a few departments produce most of the files.
+     */
+    static class FileGenerator {
+        private final long[][] sizes;
+        private final long totalWeight;
+        private final String[] prefixes;
+        private final double[] prefixCdf;
+        private final double unprefixed;
+        private final Random random;
+
+        FileGenerator(long[][] sizes, String[] prefixes, double skew, double unprefixed, long seed) {
+            this.sizes = sizes;
+            this.totalWeight = Arrays.stream(sizes).mapToLong(s -> s[1]).sum();
+            this.prefixes = prefixes;
+            this.prefixCdf = new double[prefixes.length];
+            double sum = 0;
+            for (int i = 0; i < prefixes.length; i++) {
+                sum += 1.0 / Math.pow(i + 1, skew);
+                prefixCdf[i] = sum;
+            }
+            for (int i = 0; i < prefixCdf.length; i++) prefixCdf[i] /= sum;
+            this.unprefixed = unprefixed;
+            this.random = new Random(seed);
+        }
+
+        long generate(Path incoming, int count) throws IOException {
+            Files.createDirectories(incoming);
+            long maxSize = Arrays.stream(sizes).mapToLong(s -> s[0]).max().orElse(0);
+            byte[] content = new byte[(int) maxSize];
+            random.nextBytes(content);
+            long bytes = 0;
+            for (int i = 0; i < count; i++) {
+                int size = (int) nextSize();
+                String name = random.nextDouble() < unprefixed
+                        ? String.format("report-%07d.csv", i)
+                        : String.format("%s_report_%07d.csv", nextPrefix(), i);
+                Files.write(incoming.resolve(name), size == content.length ? content : Arrays.copyOf(content, size));
+                bytes += size;
+            }
+            return bytes;
+        }
+
+        private long nextSize() {
+            long pick = (long) (random.nextDouble() * totalWeight);
+            for (long[] size : sizes) {
+                pick -= size[1];
+                if (pick < 0) return size[0];
+            }
+            return sizes[sizes.length - 1][0];
+        }
+
+        private String nextPrefix() {
+            double u = random.nextDouble();
+            for (int i = 0; i < prefixCdf.length; i++) {
+                if (u <= prefixCdf[i]) return prefixes[i];
+            }
+            return prefixes[prefixes.length - 1];
+        }
+    }
+
+    /**
+     * Wraps the RoutingLogRepository bean. Each file's log row is saved in the last pipeline
+     * stage, so the gaps between consecutive saves are the intervals at which files complete
+     * (not how long any one file took); the time inside save is the database insert cost.
+     */
+    static class LogTimer implements BeanPostProcessor {
+        private final long[] completedAt;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicLong inserts = new AtomicLong();
+        private final AtomicLong insertNanos = new AtomicLong();
+        private volatile boolean running;
+        private long startNanos;
+
+        LogTimer(int capacity) {
+            this.completedAt = new long[capacity];
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+            running = true;
+        }
+
+        long[] intervals() {
+            int n = Math.min(completed.get(), completedAt.length);
+            long[] result = new long[n];
+            // Saves from several log threads finish out of slot order
+            long[] sorted = Arrays.copyOf(completedAt, n);
+            Arrays.sort(sorted);
+            long previous = startNanos;
+            for (int i = 0; i < n; i++) {
+                result[i] = sorted[i] - previous;
+                previous = sorted[i];
+            }
+            return result;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof RoutingLogRepository)) return bean;
+            return Proxy.newProxyInstance(bean.getClass().getClassLoader(),
+                    new Class<?>[]{RoutingLogRepository.class},
+                    (proxy, method, args) -> {
+                        boolean timed = running && method.getName().equals("save");
+                        long begin = timed ? System.nanoTime() : 0;
+                        Object result;
+                        try {
+                            result = method.invoke(bean, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (timed) {
+                            long end = System.nanoTime();
+                            inserts.incrementAndGet();
+                            insertNanos.addAndGet(end - begin);
+                            int slot = completed.getAndIncrement();
+                            if (slot < completedAt.length) completedAt[slot] = end;
+                        }
+                        return result;
+                    });
+        }
+    }
+}
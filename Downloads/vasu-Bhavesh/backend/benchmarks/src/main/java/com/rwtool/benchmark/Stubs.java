@@ -0,0 +1,31 @@
+package com.rwtool.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Interface stubs for the repositories behind benchmarked services. Plain JDK proxies rather
+ * than mocks, so nothing is recorded per call and the allocation profile shows only the code
+ * under test. Methods without an answer throw UnsupportedOperationException.
+ */
+public final class Stubs {
+
+    private Stubs() {
+    }
+
+    public static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer != null) return answer.apply(args);
+                    return switch (method.getName()) {
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> type.getSimpleName() + "Stub";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+        return type.cast(stub);
+    }
+}
@@ -0,0 +1,58 @@
+package com.rwtool.config;
+
+import com.rwtool.benchmark.Stubs;
+import com.rwtool.repository.RevokedAccessTokenRepository;
+import com.rwtool.repository.UserRepository;
+import com.rwtool.service.AccessTokenRevocationList;
+import com.rwtool.service.UserStatusCache;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds JwtUtil and JwtAuthenticationFilter outside Spring, with the @Value defaults from
+ * the application and stubbed repositories: every user is active and nothing is revoked.
+ */
+final class AuthFixtures {
+
+    static final String SECRET = "mySecretKeyForJWTTokenGenerationAndValidation12345";
+
+    private AuthFixtures() {
+    }
+
+    static JwtUtil jwtUtil(int cacheMaxEntries) {
+        JwtUtil jwtUtil = new JwtUtil();
+        set(jwtUtil, "secret", SECRET);
+        set(jwtUtil, "expiration", 900000L);
+        set(jwtUtil, "cacheMaxEntries", cacheMaxEntries);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static JwtAuthenticationFilter filter(JwtUtil jwtUtil) {
+        UserRepository users = Stubs.of(UserRepository.class,
+                Map.of("findActiveByEmail", args -> Optional.of(true)));
+        UserStatusCache userStatusCache = new UserStatusCache(users);
+        set(userStatusCache, "ttlMs", 30000L);
+        set(userStatusCache, "maxEntries", 10000);
+
+        // Not started: the Bloom filter stays empty, as when no token has been revoked
+        AccessTokenRevocationList revocationList = new AccessTokenRevocationList(
+                Stubs.of(RevokedAccessTokenRepository.class, Map.of()));
+
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        set(filter, "jwtUtil", jwtUtil);
+        set(filter, "userStatusCache", userStatusCache);
+        set(filter, "revocationList", revocationList);
+        return filter;
+    }
+
+    private static void set(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) throw new IllegalStateException(target.getClass().getSimpleName() + " has no field " + name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
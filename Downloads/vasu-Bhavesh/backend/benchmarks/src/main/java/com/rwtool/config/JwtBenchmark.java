@@ -0,0 +1,71 @@
+package com.rwtool.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil on its own: signing a new access token, and verifying one with the verified-token
+ * cache hit (the steady state for an active session) and disabled (first request with a
+ * token, or a cache full of live sessions).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+    private UserDetails user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cached = AuthFixtures.jwtUtil(10000);
+        uncached = AuthFixtures.jwtUtil(0);
+        token = cached.generateToken("analyst@example.com", "USER");
+        user = new User("analyst@example.com", "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken("analyst@example.com", "USER");
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return cached.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncached.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateTokenCached() {
+        return cached.validateToken(token, user);
+    }
+
+    @Benchmark
+    public Boolean validateTokenUncached() {
+        return uncached.validateToken(token, user);
+    }
+}
@@ -0,0 +1,48 @@
+package com.rwtool.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RoutingService.dryRunDecisions over a whole batch of file names, as served by
+ * POST /api/routing/dry-run. Reported per batch; divide by size for the per-name cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DryRunBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private RoutingService routingService;
+    private List<String> fileNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        routingService = RoutingBenchmark.newRoutingService();
+        fileNames = Arrays.asList(RoutingFixtures.fileNames(size));
+    }
+
+    @Benchmark
+    public List<RoutingService.DryRunDecision> dryRunDecisions() {
+        return routingService.dryRunDecisions(fileNames);
+    }
+}
@@ -0,0 +1,80 @@
+package com.rwtool.service;
+
+import com.rwtool.benchmark.Stubs;
+import com.rwtool.repository.PathConfigRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-file routing helpers: prefix extraction, output base detection and building a
+ * DryRunDecision. Names rotate through a fixed set of realistic prefixes so the
+ * branches in detectOutputBase are all exercised.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+    static final String[] PREFIXES = {"ALM", "Liquidity", "credit", "RISK", "Treasury", "market", "Ops", "finance"};
+
+    private String[] names;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        names = RoutingFixtures.fileNames(1024);
+    }
+
+    private String next() {
+        String name = names[cursor];
+        cursor = (cursor + 1) & (names.length - 1);
+        return name;
+    }
+
+    @Benchmark
+    public String extractPrefix() {
+        return RoutingService.extractPrefix(next());
+    }
+
+    @Benchmark
+    public String detectOutputBase() {
+        return RoutingService.detectOutputBase(PREFIXES[cursor++ & (PREFIXES.length - 1)]);
+    }
+
+    @Benchmark
+    public void extractPrefixAndDetectOutputBase(Blackhole bh) {
+        String prefix = RoutingService.extractPrefix(next());
+        bh.consume(RoutingService.detectOutputBase(prefix));
+    }
+
+    @Benchmark
+    public RoutingService.DryRunDecision dryRunDecisionAllocation() {
+        String name = next();
+        return new RoutingService.DryRunDecision(name, "ALM", true, "reports/ALM", "reports/ALM/" + name, null);
+    }
+
+    // RoutingService whose PathConfigRepository has no configs; the log repository, SharePoint and the pipeline are not used
+    static RoutingService newRoutingService() {
+        PathConfigRepository repository = Stubs.of(PathConfigRepository.class, Map.of("findAll", args -> List.of()));
+        return new RoutingService(repository, null, null, new RoutingMetrics(new SimpleMeterRegistry()),
+                new RoutingPartitionLeases(null, "benchmark"), new RoutingJournal(), null);
+    }
+}
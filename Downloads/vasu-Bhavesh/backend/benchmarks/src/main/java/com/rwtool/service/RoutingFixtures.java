@@ -0,0 +1,23 @@
+package com.rwtool.service;
+
+/**
+ * File names shaped like real incoming reports: a department prefix, a report name and a
+ * date, with every 50th name missing the '_' delimiter so the skip path is included.
+ */
+final class RoutingFixtures {
+
+    private RoutingFixtures() {
+    }
+
+    static String[] fileNames(int count) {
+        String[] prefixes = RoutingBenchmark.PREFIXES;
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            String prefix = prefixes[i % prefixes.length];
+            names[i] = i % 50 == 49
+                    ? prefix + "-report-" + i + ".csv"
+                    : prefix + "_daily_report_2024" + String.format("%04d", i % 10000) + ".xlsx";
+        }
+        return names;
+    }
+}
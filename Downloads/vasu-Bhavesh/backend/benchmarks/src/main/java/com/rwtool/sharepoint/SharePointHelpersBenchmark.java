@@ -0,0 +1,46 @@
+package com.rwtool.sharepoint;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String helpers run for every file uploaded to SharePoint: mapping an output path onto the
+ * reports library and encoding a sharing URL for the Graph shares endpoint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SharePointHelpersBenchmark {
+
+    private final String[] outputPaths = {
+            "reports/ALM/2024",
+            "/Reports/Liquidity",
+            "reports\\Credit\\daily",
+            "Treasury/monthly"
+    };
+    private final String sharingUrl =
+            "https://contoso.sharepoint.com/sites/RiskReporting/Shared%20Documents/Forms/AllItems.aspx";
+    private int cursor;
+
+    @Benchmark
+    public String normalizeRelativeToReports() {
+        return SharePointService.normalizeRelativeToReports(outputPaths[cursor++ & (outputPaths.length - 1)]);
+    }
+
+    @Benchmark
+    public String encodeSharingUrl() {
+        return SharePointService.encodeSharingUrl(sharingUrl);
+    }
+}
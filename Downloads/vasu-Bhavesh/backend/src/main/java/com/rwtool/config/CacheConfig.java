@@ -0,0 +1,44 @@
+package com.rwtool.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Spring Cache over Caffeine; size, TTL and stats recording are set by spring.cache.caffeine.spec.
+ * Every service method that writes one of these tables evicts the matching entries.
+ *
+ * The cache manager is transaction-aware: evictions and puts made inside a transaction are
+ * applied only after it commits, so a reader can never cache a row again before the change
+ * that evicted it is visible (and a rolled-back write evicts nothing).
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String DOMAINS = "domains";
+    public static final String DOMAIN_BY_ID = "domainById";
+    public static final String PATH_CONFIG_PAGES = "pathConfigPages";
+    public static final String PATH_CONFIG_BY_ID = "pathConfigById";
+    public static final String USER_BY_EMAIL = "userByEmail";
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        String spec = properties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            caffeine.setCacheSpecification(spec);
+        }
+        if (!properties.getCacheNames().isEmpty()) {
+            caffeine.setCacheNames(properties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -56,6 +56,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll() // Allow authentication endpoints
+                // Diagnostics (JFR recordings include system properties and environment): admins only
+                .requestMatchers("/api/ops/**").hasRole("ADMIN")
                 .requestMatchers("/api/**").permitAll() // Allow all API endpoints for now (domains, subscriptions)
                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll() // Allow Swagger
                 .anyRequest().permitAll() // Allow everything else for development
@@ -0,0 +1,61 @@
+package com.rwtool.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the partial unique index that allows at most one PENDING or APPROVED request per
+ * user and domain. Hibernate's schema update cannot express partial indexes, so it is created
+ * here once the tables exist.
+ *
+ * Creation fails on databases without partial index support (and while duplicate active
+ * requests exist); SubscriptionRequestService then falls back to checking before inserting.
+ * It also records whether the database can return the rows an UPDATE changed (PostgreSQL's
+ * UPDATE ... RETURNING), so single reviews need one statement instead of an update and a read.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SubscriptionIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriptionIndexInitializer.class);
+
+    private static final String CREATE_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS ux_subscription_requests_active " +
+            "ON subscription_requests (user_email, domain_id) WHERE status IN ('PENDING', 'APPROVED')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean activeRequestIndexPresent;
+    private volatile boolean updateReturningSupported;
+
+    public SubscriptionIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        updateReturningSupported = "PostgreSQL".equals(product);
+        try {
+            jdbcTemplate.execute(CREATE_INDEX_SQL);
+            activeRequestIndexPresent = true;
+        } catch (DataAccessException e) {
+            logger.warn("Could not create unique index on active subscription requests, " +
+                    "duplicate requests will be checked before insert instead: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    public boolean isActiveRequestIndexPresent() {
+        return activeRequestIndexPresent;
+    }
+
+    public boolean isUpdateReturningSupported() {
+        return updateReturningSupported;
+    }
+}
@@ -1,11 +1,21 @@
 package com.rwtool.controller;
 
+import com.rwtool.dto.AuditLogSummary;
 import com.rwtool.model.UserActivityLog;
+import com.rwtool.service.AuditLogExportService;
+import com.rwtool.service.AuditLogStreamService;
 import com.rwtool.service.UserActivityLogService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/audit-logs")
@@ -13,27 +23,35 @@ import java.util.List;
 public class AuditLogController {
     
     private final UserActivityLogService auditLogService;
+    private final AuditLogExportService exportService;
+    private final AuditLogStreamService streamService;
+
+    private static final int MAX_RECENT_LIMIT = 1000;
     
-    public AuditLogController(UserActivityLogService auditLogService) {
+    public AuditLogController(UserActivityLogService auditLogService, AuditLogExportService exportService,
+                              AuditLogStreamService streamService) {
         this.auditLogService = auditLogService;
+        this.exportService = exportService;
+        this.streamService = streamService;
     }
     
     /**
      * Get all audit logs
      */
     @GetMapping
-    public ResponseEntity<List<UserActivityLog>> getAllLogs() {
-        List<UserActivityLog> logs = auditLogService.getAllLogs();
+    public ResponseEntity<List<AuditLogSummary>> getAllLogs() {
+        List<AuditLogSummary> logs = auditLogService.getAllLogs();
         return ResponseEntity.ok(logs);
     }
     
     /**
-     * Get recent audit logs (last 100)
+     * Get recent audit logs (last 100 by default, limit clamped to 1..1000)
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<UserActivityLog>> getRecentLogs(
+    public ResponseEntity<List<AuditLogSummary>> getRecentLogs(
             @RequestParam(defaultValue = "100") int limit) {
-        List<UserActivityLog> logs = auditLogService.getRecentLogs(limit);
+        // A zero or negative limit would otherwise mean no limit, i.e. the whole table
+        List<AuditLogSummary> logs = auditLogService.getRecentLogs(Math.min(Math.max(limit, 1), MAX_RECENT_LIMIT));
         return ResponseEntity.ok(logs);
     }
     
@@ -41,8 +59,8 @@ public class AuditLogController {
      * Get logs by user email
      */
     @GetMapping("/user/{email}")
-    public ResponseEntity<List<UserActivityLog>> getLogsByUser(@PathVariable String email) {
-        List<UserActivityLog> logs = auditLogService.getLogsByUser(email);
+    public ResponseEntity<List<AuditLogSummary>> getLogsByUser(@PathVariable String email) {
+        List<AuditLogSummary> logs = auditLogService.getLogsByUser(email);
         return ResponseEntity.ok(logs);
     }
     
@@ -50,8 +68,8 @@ public class AuditLogController {
      * Get logs by action type
      */
     @GetMapping("/action/{action}")
-    public ResponseEntity<List<UserActivityLog>> getLogsByAction(@PathVariable String action) {
-        List<UserActivityLog> logs = auditLogService.getLogsByAction(action);
+    public ResponseEntity<List<AuditLogSummary>> getLogsByAction(@PathVariable String action) {
+        List<AuditLogSummary> logs = auditLogService.getLogsByAction(action);
         return ResponseEntity.ok(logs);
     }
     
@@ -59,8 +77,8 @@ public class AuditLogController {
      * Get logs by role
      */
     @GetMapping("/role/{role}")
-    public ResponseEntity<List<UserActivityLog>> getLogsByRole(@PathVariable String role) {
-        List<UserActivityLog> logs = auditLogService.getLogsByRole(role);
+    public ResponseEntity<List<AuditLogSummary>> getLogsByRole(@PathVariable String role) {
+        List<AuditLogSummary> logs = auditLogService.getLogsByRole(role);
         return ResponseEntity.ok(logs);
     }
     
@@ -68,8 +86,8 @@ public class AuditLogController {
      * Get logs by date range
      */
     @GetMapping("/date-range/{range}")
-    public ResponseEntity<List<UserActivityLog>> getLogsByDateRange(@PathVariable String range) {
-        List<UserActivityLog> logs = auditLogService.getLogsByDateRange(range);
+    public ResponseEntity<List<AuditLogSummary>> getLogsByDateRange(@PathVariable String range) {
+        List<AuditLogSummary> logs = auditLogService.getLogsByDateRange(range);
         return ResponseEntity.ok(logs);
     }
     
@@ -77,24 +95,83 @@ public class AuditLogController {
      * Get logs with filters
      */
     @GetMapping("/filter")
-    public ResponseEntity<List<UserActivityLog>> getLogsWithFilters(
+    public ResponseEntity<List<AuditLogSummary>> getLogsWithFilters(
             @RequestParam(required = false) String userRole,
             @RequestParam(required = false) String action,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "7days") String dateRange) {
         
-        List<UserActivityLog> logs = auditLogService.getLogsWithFilters(
+        List<AuditLogSummary> logs = auditLogService.getLogsWithFilters(
             userRole, action, status, dateRange);
         return ResponseEntity.ok(logs);
     }
     
+    /**
+     * Live tail of new audit logs over Server-Sent Events.
+     * Reconnecting clients send Last-Event-ID to replay what they missed; a "reset" event means
+     * the gap was too large to replay and the client should reload the logs.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLogs(
+            @RequestParam(required = false) String userRole,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String status,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return streamService.subscribe(userRole, action, status, lastEventId);
+    }
+    
+    /**
+     * Export logs as CSV or NDJSON (optionally gzipped), streamed from a DB cursor.
+     * Accepts the same filters as /filter.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam(required = false) String userRole,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "7days") String dateRange,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        AuditLogExportService.Format exportFormat;
+        try {
+            exportFormat = AuditLogExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        String fileName = "audit-logs-" + LocalDate.now() + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            exportService.exportLogs(userRole, action, status, dateRange, exportFormat, target);
+            if (target instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .body(body);
+    }
+    
     /**
      * Search logs
      */
     @GetMapping("/search")
-    public ResponseEntity<List<UserActivityLog>> searchLogs(
+    public ResponseEntity<List<AuditLogSummary>> searchLogs(
             @RequestParam String searchTerm) {
-        List<UserActivityLog> logs = auditLogService.searchLogs(searchTerm);
+        List<AuditLogSummary> logs = auditLogService.searchLogs(searchTerm);
         return ResponseEntity.ok(logs);
     }
+    
+    /**
+     * Get a single log with every column
+     */
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<UserActivityLog> getLogById(@PathVariable Long id) {
+        return auditLogService.getLogById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -2,13 +2,17 @@ package com.rwtool.controller;
 
 import com.rwtool.dto.AuthResponse;
 import com.rwtool.dto.LoginRequest;
+import com.rwtool.dto.RefreshTokenRequest;
 import com.rwtool.dto.SignupRequest;
 import com.rwtool.service.AuthService;
+import com.rwtool.service.LoginThrottle;
 import com.rwtool.service.UserActivityLogService;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -26,14 +30,22 @@ public class AuthController {
     
     @Autowired
     private UserActivityLogService auditLogService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
     
     @Operation(summary = "Register a new user", description = "Create a new user account")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "User created successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid input or email already exists")
+        @ApiResponse(responseCode = "400", description = "Invalid input or email already exists"),
+        @ApiResponse(responseCode = "429", description = "Too many attempts"),
+        @ApiResponse(responseCode = "503", description = "Authentication is overloaded")
     })
     @PostMapping("/signup")
-    public ResponseEntity<AuthResponse> signup(@Valid @RequestBody SignupRequest request) {
+    public ResponseEntity<AuthResponse> signup(@Valid @RequestBody SignupRequest request,
+                                               HttpServletRequest httpRequest) {
+        // Shed throttled traffic before hashing or auditing anything
+        loginThrottle.acquire(request.getEmail(), httpRequest.getRemoteAddr());
         try {
             AuthResponse response = authService.signup(request);
             // Log successful signup
@@ -61,10 +73,15 @@ public class AuthController {
     @Operation(summary = "Login user", description = "Authenticate user and return JWT token")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful"),
-        @ApiResponse(responseCode = "401", description = "Invalid credentials")
+        @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+        @ApiResponse(responseCode = "429", description = "Too many attempts"),
+        @ApiResponse(responseCode = "503", description = "Authentication is overloaded")
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest httpRequest) {
+        // Shed throttled traffic before hashing or auditing anything
+        loginThrottle.acquire(request.getEmail(), httpRequest.getRemoteAddr());
         try {
             AuthResponse response = authService.login(request);
             // Log successful login
@@ -89,6 +106,36 @@ public class AuthController {
         }
     }
     
+    @Operation(summary = "Refresh tokens", description = "Exchange a refresh token for a new access token and refresh token")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tokens refreshed"),
+        @ApiResponse(responseCode = "401", description = "Invalid, expired or revoked refresh token")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+    
+    @Operation(summary = "Logout user", description = "Revoke the refresh token and the current access token")
+    @ApiResponse(responseCode = "204", description = "Logged out")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshTokenRequest request,
+                                       @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        Claims claims = authService.logout(request != null ? request.getRefreshToken() : null, accessToken);
+        if (claims != null) {
+            auditLogService.logSuccess(
+                claims.getSubject(),
+                "Unknown",
+                claims.get("role", String.class),
+                "USER_LOGOUT",
+                "User logged out"
+            );
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
     @Operation(summary = "Health check", description = "Check if the authentication service is running")
     @ApiResponse(responseCode = "200", description = "Service is healthy")
     @GetMapping("/health")
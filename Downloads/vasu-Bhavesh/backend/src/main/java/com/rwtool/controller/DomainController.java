@@ -2,11 +2,14 @@ package com.rwtool.controller;
 
 import com.rwtool.model.Domain;
 import com.rwtool.service.DomainService;
+import com.rwtool.service.TableVersions;
 import com.rwtool.service.UserActivityLogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,11 +24,19 @@ public class DomainController {
     @Autowired
     private UserActivityLogService auditLogService;
 
+    @Autowired
+    private TableVersions tableVersions;
+
     @GetMapping
-    public ResponseEntity<List<Domain>> getAllDomains() {
+    public ResponseEntity<List<Domain>> getAllDomains(WebRequest request) {
         try {
+            // Unchanged since the client's copy: 304 without loading or serializing anything
+            String etag = tableVersions.etag(TableVersions.DOMAINS);
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
             List<Domain> domains = domainService.getAllDomains();
-            return ResponseEntity.ok(domains);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(domains);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
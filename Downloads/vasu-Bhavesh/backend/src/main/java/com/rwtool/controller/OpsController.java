@@ -1,13 +1,28 @@
 package com.rwtool.controller;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rwtool.service.FlightRecorderService;
 import com.rwtool.service.StorageService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.TreeMap;
 
 @RestController
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"}, allowCredentials = "false")
@@ -15,9 +30,84 @@ import java.util.List;
 public class OpsController {
 
     private final StorageService storageService;
+    private final CacheManager cacheManager;
+    private final FlightRecorderService flightRecorderService;
 
-    public OpsController(StorageService storageService) {
+    public OpsController(StorageService storageService, CacheManager cacheManager,
+                         FlightRecorderService flightRecorderService) {
         this.storageService = storageService;
+        this.cacheManager = cacheManager;
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    // Hit/miss/eviction counters and size for each read cache
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        Map<String, Object> resp = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            // Caches are wrapped for transaction awareness; the native cache is still Caffeine's
+            if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) continue;
+            CacheStats stats = nativeCache.stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", nativeCache.estimatedSize());
+            entry.put("hits", stats.hitCount());
+            entry.put("misses", stats.missCount());
+            entry.put("hitRate", stats.hitRate());
+            entry.put("evictions", stats.evictionCount());
+            resp.put(name, entry);
+        }
+        return ResponseEntity.ok(resp);
+    }
+
+    // Start a JFR recording (settings: default or profile) keeping the last maxAgeSeconds of events
+    @PostMapping("/jfr/start")
+    public ResponseEntity<?> startRecording(@RequestParam(defaultValue = "default") String settings,
+                                            @RequestParam(defaultValue = "900") long maxAgeSeconds) {
+        try {
+            return ResponseEntity.ok(flightRecorderService.start(settings, Duration.ofSeconds(maxAgeSeconds)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/jfr")
+    public ResponseEntity<Map<String, Object>> recordingStatus() {
+        return ResponseEntity.ok(flightRecorderService.status());
+    }
+
+    // Download the recording so far as a .jfr file (open in JDK Mission Control); it keeps running
+    @GetMapping("/jfr/dump")
+    public ResponseEntity<StreamingResponseBody> dumpRecording() {
+        Path file;
+        try {
+            file = flightRecorderService.dump();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rwtool-" + LocalDateTime.now()
+                        .format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<?> stopRecording() {
+        try {
+            return ResponseEntity.ok(flightRecorderService.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
 
     // Upload a file into the local incoming folder (demo/local mode)
@@ -2,26 +2,38 @@ package com.rwtool.controller;
 
 import com.rwtool.dto.PageResponse;
 import com.rwtool.dto.PathConfigRequest;
+import com.rwtool.dto.PathConfigSummary;
 import com.rwtool.model.PathConfig;
 import com.rwtool.service.PathConfigService;
+import com.rwtool.service.TableVersions;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/paths")
 public class PathConfigController {
 
     private final PathConfigService service;
+    private final TableVersions tableVersions;
 
-    public PathConfigController(PathConfigService service) {
+    public PathConfigController(PathConfigService service, TableVersions tableVersions) {
         this.service = service;
+        this.tableVersions = tableVersions;
     }
 
     @GetMapping
-    public PageResponse<PathConfig> list(@RequestParam(required = false) String search,
-                                         @RequestParam(defaultValue = "1") int page,
-                                         @RequestParam(defaultValue = "10") int pageSize) {
-        return service.list(search, page, pageSize);
+    public ResponseEntity<PageResponse<PathConfigSummary>> list(@RequestParam(required = false) String search,
+                                                                @RequestParam(defaultValue = "1") int page,
+                                                                @RequestParam(defaultValue = "10") int pageSize,
+                                                                WebRequest request) {
+        String etag = tableVersions.etag(TableVersions.PATH_CONFIGS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                .body(service.list(search, page, pageSize));
     }
 
     @PostMapping
@@ -1,16 +1,24 @@
 package com.rwtool.controller;
 
 import com.rwtool.dto.ApprovalDecisionDTO;
+import com.rwtool.dto.BulkReviewDTO;
+import com.rwtool.dto.BulkReviewResultDTO;
+import com.rwtool.dto.CursorPageResponse;
 import com.rwtool.dto.SubscriptionRequestDTO;
+import com.rwtool.dto.SubscriptionRequestSummary;
 import com.rwtool.model.SubscriptionRequest;
 import com.rwtool.service.SubscriptionRequestService;
+import com.rwtool.service.TableVersions;
 import com.rwtool.service.UserActivityLogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/subscriptions")
@@ -23,6 +31,9 @@ public class SubscriptionRequestController {
     @Autowired
     private UserActivityLogService auditLogService;
 
+    @Autowired
+    private TableVersions tableVersions;
+
     // Get all subscription requests (for admin)
     @GetMapping
     public ResponseEntity<List<SubscriptionRequest>> getAllRequests() {
@@ -45,12 +56,71 @@ public class SubscriptionRequestController {
         }
     }
 
+    // Get one keyset page of the review queue (for admin), oldest first unless direction=desc
+    @GetMapping("/queue")
+    public ResponseEntity<?> getQueue(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String domainId,
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int pageSize) {
+        try {
+            CursorPageResponse<SubscriptionRequestSummary> page =
+                    subscriptionRequestService.getQueue(status, domainId, department, direction, cursor, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Get request summaries without the reason texts (for list views), optionally by status
+    @GetMapping("/summary")
+    public ResponseEntity<List<SubscriptionRequestSummary>> getRequestSummaries(
+            @RequestParam(required = false) String status) {
+        try {
+            return ResponseEntity.ok(subscriptionRequestService.getRequestSummaries(status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Get request summaries by user email (for user dashboard lists)
+    @GetMapping("/user/{email}/summary")
+    public ResponseEntity<List<SubscriptionRequestSummary>> getRequestSummariesByUser(@PathVariable String email,
+                                                                                      WebRequest request) {
+        try {
+            String etag = tableVersions.etag(TableVersions.SUBSCRIPTION_REQUESTS);
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                    .body(subscriptionRequestService.getRequestSummariesByUser(email));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Get the domain ids a user has approved access to
+    @GetMapping("/user/{email}/domains")
+    public ResponseEntity<Set<String>> getApprovedDomains(@PathVariable String email) {
+        try {
+            return ResponseEntity.ok(subscriptionRequestService.getApprovedDomainIds(email));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Get requests by user email (for user dashboard)
     @GetMapping("/user/{email}")
-    public ResponseEntity<List<SubscriptionRequest>> getRequestsByUser(@PathVariable String email) {
+    public ResponseEntity<List<SubscriptionRequest>> getRequestsByUser(@PathVariable String email, WebRequest request) {
         try {
+            String etag = tableVersions.etag(TableVersions.SUBSCRIPTION_REQUESTS);
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
             List<SubscriptionRequest> requests = subscriptionRequestService.getRequestsByUser(email);
-            return ResponseEntity.ok(requests);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(requests);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -145,6 +215,20 @@ public class SubscriptionRequestController {
         }
     }
 
+    // Approve or reject many requests in one transaction (for admin)
+    @PutMapping("/bulk-review")
+    public ResponseEntity<?> bulkReview(
+            @RequestBody BulkReviewDTO review,
+            @RequestParam(required = false) String adminEmail,
+            @RequestParam(required = false) String adminName) {
+        try {
+            BulkReviewResultDTO result = subscriptionRequestService.bulkReview(review, adminEmail, adminName);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     // Cancel request (for users)
     @DeleteMapping("/{id}/cancel")
     public ResponseEntity<?> cancelRequest(
@@ -162,20 +246,14 @@ public class SubscriptionRequestController {
     @GetMapping("/stats")
     public ResponseEntity<?> getDashboardStats() {
         try {
-            List<SubscriptionRequest> allRequests = subscriptionRequestService.getAllRequests();
+            java.util.Map<String, Long> counts = subscriptionRequestService.getStatusCounts();
             
-            long totalRequests = allRequests.size();
-            long pendingCount = allRequests.stream()
-                    .filter(r -> "PENDING".equalsIgnoreCase(r.getStatus()))
-                    .count();
-            long approvedCount = allRequests.stream()
-                    .filter(r -> "APPROVED".equalsIgnoreCase(r.getStatus()))
-                    .count();
-            long rejectedCount = allRequests.stream()
-                    .filter(r -> "REJECTED".equalsIgnoreCase(r.getStatus()))
-                    .count();
+            long totalRequests = counts.values().stream().mapToLong(Long::longValue).sum();
+            long pendingCount = counts.getOrDefault("PENDING", 0L);
+            long approvedCount = counts.getOrDefault("APPROVED", 0L);
+            long rejectedCount = counts.getOrDefault("REJECTED", 0L);
             
-            double approvalRate = totalRequests > 0 
+            double approvalRate = (approvedCount + rejectedCount) > 0 
                     ? (approvedCount * 100.0) / (approvedCount + rejectedCount)
                     : 0.0;
             
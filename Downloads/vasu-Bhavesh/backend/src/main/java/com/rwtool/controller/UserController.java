@@ -1,7 +1,7 @@
 package com.rwtool.controller;
 
 import com.rwtool.model.User;
-import com.rwtool.repository.UserRepository;
+import com.rwtool.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,14 +12,14 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
     
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
     
     /**
      * Get user by ID
      */
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return userRepository.findById(id)
+        return userService.getUserById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -29,7 +29,7 @@ public class UserController {
      */
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        return userRepository.findByEmail(email)
+        return userService.getUserByEmail(email)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -39,7 +39,7 @@ public class UserController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userUpdate) {
-        return userRepository.findById(id)
+        return userService.getUserById(id)
                 .map(user -> {
                     // Update only allowed fields
                     if (userUpdate.getFullName() != null) {
@@ -52,7 +52,21 @@ public class UserController {
                         user.setDomain(userUpdate.getDomain());
                     }
                     
-                    User savedUser = userRepository.save(user);
+                    User savedUser = userService.save(user);
+                    return ResponseEntity.ok(savedUser);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Activate or deactivate a user. Takes effect on the user's next request.
+     */
+    @PutMapping("/{id}/active")
+    public ResponseEntity<User> setActive(@PathVariable Long id, @RequestParam boolean active) {
+        return userService.getUserById(id)
+                .map(user -> {
+                    user.setIsActive(active);
+                    User savedUser = userService.save(user);
                     return ResponseEntity.ok(savedUser);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,48 @@
+package com.rwtool.dto;
+
+import java.time.Instant;
+
+/**
+ * Read-only row for audit log tables; the full UserActivityLog is served by the detail endpoint.
+ */
+public class AuditLogSummary {
+    private Long id;
+    private Instant timestamp;
+    private String userEmail;
+    private String userName;
+    private String userRole;
+    private String action;
+    private String details;
+    private String status;
+
+    public AuditLogSummary() {}
+
+    public AuditLogSummary(Long id, Instant timestamp, String userEmail, String userName, String userRole,
+                           String action, String details, String status) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.userEmail = userEmail;
+        this.userName = userName;
+        this.userRole = userRole;
+        this.action = action;
+        this.details = details;
+        this.status = status;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Instant getTimestamp() { return timestamp; }
+    public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+    public String getUserRole() { return userRole; }
+    public void setUserRole(String userRole) { this.userRole = userRole; }
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+    public String getDetails() { return details; }
+    public void setDetails(String details) { this.details = details; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
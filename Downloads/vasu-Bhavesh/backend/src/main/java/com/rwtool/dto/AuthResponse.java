@@ -3,6 +3,8 @@ package com.rwtool.dto;
 public class AuthResponse {
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
+    private Long expiresIn; // access token lifetime in seconds
     private Long id;
     private String email;
     private String fullName;
@@ -37,6 +39,12 @@ public class AuthResponse {
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
     
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    
+    public Long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(Long expiresIn) { this.expiresIn = expiresIn; }
+    
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     
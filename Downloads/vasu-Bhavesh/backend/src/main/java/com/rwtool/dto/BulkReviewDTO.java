@@ -0,0 +1,42 @@
+package com.rwtool.dto;
+
+import java.util.List;
+
+public class BulkReviewDTO {
+    private List<String> ids;
+    private String action; // "APPROVE" or "REJECT"
+    private String rejectionReason; // Only for REJECT
+
+    public BulkReviewDTO() {}
+
+    public BulkReviewDTO(List<String> ids, String action, String rejectionReason) {
+        this.ids = ids;
+        this.action = action;
+        this.rejectionReason = rejectionReason;
+    }
+
+    // Getters and Setters
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public void setRejectionReason(String rejectionReason) {
+        this.rejectionReason = rejectionReason;
+    }
+}
@@ -0,0 +1,41 @@
+package com.rwtool.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BulkReviewResultDTO {
+    private String action;
+    private int updated;
+    private Map<String, String> outcomes = new LinkedHashMap<>(); // id -> APPROVED | REJECTED | NOT_PENDING | NOT_FOUND
+
+    public BulkReviewResultDTO() {}
+
+    public BulkReviewResultDTO(String action) {
+        this.action = action;
+    }
+
+    // Getters and Setters
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public Map<String, String> getOutcomes() {
+        return outcomes;
+    }
+
+    public void setOutcomes(Map<String, String> outcomes) {
+        this.outcomes = outcomes;
+    }
+}
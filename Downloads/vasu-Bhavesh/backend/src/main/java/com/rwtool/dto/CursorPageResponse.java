@@ -0,0 +1,32 @@
+package com.rwtool.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page. Pass nextCursor back as ?cursor= to get the following page;
+ * it is null on the last page. total is null when it is not known without a count query.
+ */
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private String nextCursor;
+    private Long total;
+    private int pageSize;
+
+    public CursorPageResponse() {}
+
+    public CursorPageResponse(List<T> items, String nextCursor, Long total, int pageSize) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+        this.pageSize = pageSize;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public Long getTotal() { return total; }
+    public void setTotal(Long total) { this.total = total; }
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+}
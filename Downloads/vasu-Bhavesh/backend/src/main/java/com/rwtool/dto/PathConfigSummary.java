@@ -0,0 +1,33 @@
+package com.rwtool.dto;
+
+/**
+ * Read-only row for the path configuration list.
+ */
+public class PathConfigSummary {
+    private Long id;
+    private String prefix;
+    private String sourcePath;
+    private String outputPath;
+    private String status;
+
+    public PathConfigSummary() {}
+
+    public PathConfigSummary(Long id, String prefix, String sourcePath, String outputPath, String status) {
+        this.id = id;
+        this.prefix = prefix;
+        this.sourcePath = sourcePath;
+        this.outputPath = outputPath;
+        this.status = status;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getPrefix() { return prefix; }
+    public void setPrefix(String prefix) { this.prefix = prefix; }
+    public String getSourcePath() { return sourcePath; }
+    public void setSourcePath(String sourcePath) { this.sourcePath = sourcePath; }
+    public String getOutputPath() { return outputPath; }
+    public void setOutputPath(String outputPath) { this.outputPath = outputPath; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -0,0 +1,58 @@
+package com.rwtool.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row for subscription lists. Leaves out the long request/rejection reasons,
+ * which are served by GET /api/subscriptions/{id}.
+ */
+public class SubscriptionRequestSummary {
+    private String id;
+    private String userName;
+    private String userEmail;
+    private String userDepartment;
+    private String userRole;
+    private String domainId;
+    private String domainName;
+    private String status;
+    private LocalDateTime requestedDate;
+    private LocalDateTime reviewedDate;
+
+    public SubscriptionRequestSummary() {}
+
+    public SubscriptionRequestSummary(String id, String userName, String userEmail, String userDepartment,
+                                      String userRole, String domainId, String domainName, String status,
+                                      LocalDateTime requestedDate, LocalDateTime reviewedDate) {
+        this.id = id;
+        this.userName = userName;
+        this.userEmail = userEmail;
+        this.userDepartment = userDepartment;
+        this.userRole = userRole;
+        this.domainId = domainId;
+        this.domainName = domainName;
+        this.status = status;
+        this.requestedDate = requestedDate;
+        this.reviewedDate = reviewedDate;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+    public String getUserDepartment() { return userDepartment; }
+    public void setUserDepartment(String userDepartment) { this.userDepartment = userDepartment; }
+    public String getUserRole() { return userRole; }
+    public void setUserRole(String userRole) { this.userRole = userRole; }
+    public String getDomainId() { return domainId; }
+    public void setDomainId(String domainId) { this.domainId = domainId; }
+    public String getDomainName() { return domainName; }
+    public void setDomainName(String domainName) { this.domainName = domainName; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDateTime getRequestedDate() { return requestedDate; }
+    public void setRequestedDate(LocalDateTime requestedDate) { this.requestedDate = requestedDate; }
+    public LocalDateTime getReviewedDate() { return reviewedDate; }
+    public void setReviewedDate(LocalDateTime reviewedDate) { this.reviewedDate = reviewedDate; }
+}
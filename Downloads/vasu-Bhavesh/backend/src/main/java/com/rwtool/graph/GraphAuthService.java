@@ -1,10 +1,12 @@
 package com.rwtool.graph;
 
+import com.rwtool.jfr.GraphTokenRefreshEvent;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
@@ -22,7 +24,15 @@ public class GraphAuthService {
     private volatile String cachedToken;
     private volatile Instant tokenExpiry;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final GraphMetrics graphMetrics;
+
+    public GraphAuthService(GraphMetrics graphMetrics,
+                            @Value("${app.msgraph.connectTimeoutMs:10000}") long connectTimeoutMs,
+                            @Value("${app.msgraph.readTimeoutMs:60000}") long readTimeoutMs) {
+        this.graphMetrics = graphMetrics;
+        this.restTemplate = GraphHttp.restTemplate(connectTimeoutMs, readTimeoutMs);
+    }
 
     public String getAccessToken() {
         if (cachedToken != null && tokenExpiry != null && Instant.now().isBefore(tokenExpiry.minusSeconds(60))) {
@@ -40,14 +50,31 @@ public class GraphAuthService {
         body.add("scope", "https://graph.microsoft.com/.default");
         body.add("grant_type", "client_credentials");
         HttpEntity<MultiValueMap<String, String>> req = new HttpEntity<>(body, headers);
-        ResponseEntity<Map> resp = restTemplate.postForEntity(url, req, Map.class);
-        if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-            throw new RuntimeException("Failed to obtain access token");
+        GraphTokenRefreshEvent event = new GraphTokenRefreshEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int status = 0;
+        boolean succeeded = false;
+        long expiresInSeconds = 0;
+        try {
+            ResponseEntity<Map> resp = restTemplate.postForEntity(url, req, Map.class);
+            status = resp.getStatusCode().value();
+            if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
+                throw new RuntimeException("Failed to obtain access token");
+            }
+            Map<String, Object> m = resp.getBody();
+            cachedToken = (String) m.get("access_token");
+            Number expiresIn = (Number) m.get("expires_in");
+            expiresInSeconds = expiresIn != null ? expiresIn.longValue() : 3000L;
+            tokenExpiry = Instant.now().plusSeconds(expiresInSeconds);
+            succeeded = true;
+        } catch (HttpStatusCodeException e) {
+            status = e.getStatusCode().value();
+            throw e;
+        } finally {
+            graphMetrics.record("token", "POST", status, System.nanoTime() - start);
+            event.record(succeeded, expiresInSeconds);
         }
-        Map<String, Object> m = resp.getBody();
-        cachedToken = (String) m.get("access_token");
-        Number expiresIn = (Number) m.get("expires_in");
-        tokenExpiry = Instant.now().plusSeconds(expiresIn != null ? expiresIn.longValue() : 3000L);
         return cachedToken;
     }
 }
@@ -0,0 +1,27 @@
+package com.rwtool.graph;
+
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * RestTemplates for Graph and Azure AD calls. Both timeouts are always set, so a stalled
+ * endpoint fails with ResourceAccessException instead of holding the calling thread forever.
+ * The JDK client also supports PATCH, which Graph uses for moves.
+ */
+public final class GraphHttp {
+
+    private GraphHttp() {
+    }
+
+    public static RestTemplate restTemplate(long connectTimeoutMs, long readTimeoutMs) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(client);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(factory);
+    }
+}
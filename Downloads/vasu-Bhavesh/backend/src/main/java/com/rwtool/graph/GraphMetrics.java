@@ -0,0 +1,49 @@
+package com.rwtool.graph;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Timers for Microsoft Graph and Azure AD token requests, tagged by operation, HTTP method and
+ * status (0 when no response arrived). Timers are cached per operation in an array indexed
+ * by status code after first use, so recording does not box the status.
+ */
+@Component
+public class GraphMetrics {
+
+    // 0 for no response plus every HTTP status code
+    private static final int STATUS_SLOTS = 600;
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicReferenceArray<Timer>> timers = new ConcurrentHashMap<>();
+
+    public GraphMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void record(String operation, String method, int status, long nanos) {
+        if (status < 0 || status >= STATUS_SLOTS) {
+            status = 0; // not a status code; counted with the requests that got no response
+        }
+        AtomicReferenceArray<Timer> byStatus = timers.get(operation);
+        if (byStatus == null) {
+            byStatus = timers.computeIfAbsent(operation, op -> new AtomicReferenceArray<>(STATUS_SLOTS));
+        }
+        Timer timer = byStatus.get(status);
+        if (timer == null) {
+            // Registering the same tags twice returns the existing timer, so a race here is harmless
+            timer = Timer.builder("rwtool.graph.requests")
+                    .description("Microsoft Graph requests")
+                    .tags("operation", operation, "method", method, "status", Integer.toString(status))
+                    .register(registry);
+            byStatus.compareAndSet(status, null, timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,34 @@
+package com.rwtool.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Insert of routing log or audit log rows.
+ */
+@Name("com.rwtool.DatabaseWrite")
+@Label("Database Write")
+@Category({"RW Tool", "Database"})
+@Description("Rows inserted into routing_logs or user_activity_logs")
+@StackTrace(false)
+public class DatabaseWriteEvent extends Event {
+
+    @Label("Table")
+    public String table;
+
+    @Label("Rows")
+    public int rows;
+
+    // Fill in the fields and commit, if the event is enabled and over its threshold
+    public void record(String table, int rows) {
+        if (shouldCommit()) {
+            this.table = table;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.rwtool.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One Microsoft Graph HTTP request made by SharePointService.
+ */
+@Name("com.rwtool.GraphCall")
+@Label("Graph Call")
+@Category({"RW Tool", "Microsoft Graph"})
+@Description("A Microsoft Graph request; obtaining the access token is recorded separately")
+@StackTrace(false)
+public class GraphCallEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    @Description("Kind of Graph endpoint, e.g. shares.driveItem or items.move; ids are not recorded")
+    public String endpoint;
+
+    @Label("Status")
+    @Description("HTTP status code, or 0 if no response was received")
+    public int status;
+
+    // Fill in the fields and commit, if the event is enabled and over its threshold
+    public void record(String method, String endpoint, int status) {
+        if (shouldCommit()) {
+            this.method = method;
+            this.endpoint = endpoint;
+            this.status = status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rwtool.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A client credentials token request to Azure AD, made when the cached Graph token is missing
+ * or about to expire.
+ */
+@Name("com.rwtool.GraphTokenRefresh")
+@Label("Graph Token Refresh")
+@Category({"RW Tool", "Microsoft Graph"})
+@Description("An access token request for Microsoft Graph")
+@StackTrace(false)
+public class GraphTokenRefreshEvent extends Event {
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    @Label("Expires In")
+    @Timespan(Timespan.SECONDS)
+    public long expiresInSeconds;
+
+    // Fill in the fields and commit, if the event is enabled and over its threshold
+    public void record(boolean succeeded, long expiresInSeconds) {
+        if (shouldCommit()) {
+            this.succeeded = succeeded;
+            this.expiresInSeconds = expiresInSeconds;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.rwtool.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One file handled by a routing run, from prefix detection to its routing log row.
+ */
+@Name("com.rwtool.RoutingFile")
+@Label("Routing File")
+@Category({"RW Tool", "Routing"})
+@Description("A file routed, skipped or failed by a local or live routing run")
+@StackTrace(false)
+public class RoutingFileEvent extends Event {
+
+    @Label("Mode")
+    @Description("local or live")
+    public String mode;
+
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Prefix")
+    public String prefix;
+
+    @Label("Action")
+    @Description("MOVED, SKIPPED or ERROR, as written to routing_logs")
+    public String action;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    // Fill in the fields and commit, if the event is enabled and over its threshold
+    public void record(String mode, String fileName, String prefix, String action, long bytes) {
+        if (shouldCommit()) {
+            this.mode = mode;
+            this.fileName = fileName;
+            this.prefix = prefix;
+            this.action = action;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
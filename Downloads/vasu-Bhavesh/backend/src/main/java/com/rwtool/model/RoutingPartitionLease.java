@@ -0,0 +1,41 @@
+package com.rwtool.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Lease on one partition of the incoming folder. Files are assigned to partitions by a hash of
+ * their name; an instance routes a file only while it holds the file's partition. A lease that
+ * is not renewed before expiresAt can be taken over by another instance.
+ */
+@Entity
+@Table(name = "routing_partition_leases")
+public class RoutingPartitionLease {
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(length = 128)
+    private String owner;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    public RoutingPartitionLease() {}
+
+    public RoutingPartitionLease(Integer partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    // Getters and Setters
+    public Integer getPartitionId() { return partitionId; }
+    public void setPartitionId(Integer partitionId) { this.partitionId = partitionId; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -1,10 +1,13 @@
 package com.rwtool.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "subscription_requests")
+@Table(name = "subscription_requests", indexes = {
+        @Index(name = "idx_subscription_requests_status_requested", columnList = "status, requestedDate, id")
+})
 public class SubscriptionRequest {
 
     @Id
@@ -43,6 +46,12 @@ public class SubscriptionRequest {
     @Column(name = "user_role")
     private String userRole;
 
+    // Optimistic lock for entity-based updates; the conditional UPDATE/DELETE statements bump it too
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public SubscriptionRequest() {
         this.requestedDate = LocalDateTime.now();
         this.status = "PENDING";
@@ -144,4 +153,12 @@ public class SubscriptionRequest {
     public void setUserRole(String userRole) {
         this.userRole = userRole;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,28 @@
+package com.rwtool.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Change counter for one table, bumped in the same transaction as every change to it. All
+ * instances read the same row, so ETags built from it agree across instances.
+ */
+@Entity
+@Table(name = "table_versions")
+public class TableVersion {
+
+    @Id
+    @Column(name = "table_name", length = 64)
+    private String tableName;
+
+    @Column(nullable = false)
+    private long version;
+
+    public TableVersion() {}
+
+    // Getters and Setters
+    public String getTableName() { return tableName; }
+    public void setTableName(String tableName) { this.tableName = tableName; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
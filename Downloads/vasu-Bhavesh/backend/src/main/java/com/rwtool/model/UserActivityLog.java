@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "user_activity_logs")
+@Table(name = "user_activity_logs", indexes = {
+        @Index(name = "idx_activity_logs_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_activity_logs_role_ts", columnList = "userRole, timestamp"),
+        @Index(name = "idx_activity_logs_action_ts", columnList = "action, timestamp"),
+        @Index(name = "idx_activity_logs_status_ts", columnList = "status, timestamp"),
+        @Index(name = "idx_activity_logs_email_ts", columnList = "userEmail, timestamp")
+})
 public class UserActivityLog {
     
     @Id
@@ -1,5 +1,6 @@
 package com.rwtool.repository;
 
+import com.rwtool.dto.PathConfigSummary;
 import com.rwtool.model.PathConfig;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,8 +11,17 @@ public interface PathConfigRepository extends JpaRepository<PathConfig, Long> {
 
     boolean existsByPrefixIgnoreCase(String prefix);
 
-    @Query("select p from PathConfig p where lower(p.prefix) like lower(concat('%', :search, '%')) " +
+    @Query(value = "select new com.rwtool.dto.PathConfigSummary(p.id, p.prefix, p.sourcePath, p.outputPath, p.status) " +
+            "from PathConfig p",
+            countQuery = "select count(p) from PathConfig p")
+    Page<PathConfigSummary> findSummaries(Pageable pageable);
+
+    @Query(value = "select new com.rwtool.dto.PathConfigSummary(p.id, p.prefix, p.sourcePath, p.outputPath, p.status) " +
+            "from PathConfig p where lower(p.prefix) like lower(concat('%', :search, '%')) " +
+            "or lower(p.sourcePath) like lower(concat('%', :search, '%')) " +
+            "or lower(p.outputPath) like lower(concat('%', :search, '%'))",
+            countQuery = "select count(p) from PathConfig p where lower(p.prefix) like lower(concat('%', :search, '%')) " +
             "or lower(p.sourcePath) like lower(concat('%', :search, '%')) " +
             "or lower(p.outputPath) like lower(concat('%', :search, '%'))")
-    Page<PathConfig> search(String search, Pageable pageable);
+    Page<PathConfigSummary> searchSummaries(String search, Pageable pageable);
 }
@@ -3,5 +3,9 @@ package com.rwtool.repository;
 import com.rwtool.model.RoutingLog;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.Instant;
+
 public interface RoutingLogRepository extends JpaRepository<RoutingLog, Long> {
+
+    boolean existsByFileNameAndActionAndToPathAndCreatedAtGreaterThanEqual(String fileName, String action, String toPath, Instant since);
 }
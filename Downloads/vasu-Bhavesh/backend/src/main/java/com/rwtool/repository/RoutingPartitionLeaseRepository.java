@@ -0,0 +1,47 @@
+package com.rwtool.repository;
+
+import com.rwtool.model.RoutingPartitionLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface RoutingPartitionLeaseRepository extends JpaRepository<RoutingPartitionLease, Integer> {
+
+    @Query("SELECT l.partitionId FROM RoutingPartitionLease l")
+    List<Integer> findPartitionIds();
+
+    // Creates a free partition row; 0 when it already exists (never touches an existing lease)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO routing_partition_leases (partition_id) VALUES (:partitionId) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(Integer partitionId);
+
+    // Takes the partition if it is free, expired, or already ours; 1 when the lease is now held.
+    // Expiry is set and checked with the database clock, so instance clocks do not matter
+    @Transactional
+    @Modifying
+    @Query("UPDATE RoutingPartitionLease l SET l.owner = :owner, " +
+            "l.expiresAt = current_instant + (:leaseSeconds) second " +
+            "WHERE l.partitionId = :partitionId " +
+            "AND (l.owner IS NULL OR l.owner = :owner OR l.expiresAt < current_instant)")
+    int claim(Integer partitionId, String owner, long leaseSeconds);
+
+    // Extends a lease we still hold; 0 when it expired and another run took it over
+    @Transactional
+    @Modifying
+    @Query("UPDATE RoutingPartitionLease l SET l.expiresAt = current_instant + (:leaseSeconds) second " +
+            "WHERE l.partitionId = :partitionId AND l.owner = :owner")
+    int renew(Integer partitionId, String owner, long leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RoutingPartitionLease l SET l.owner = NULL, l.expiresAt = NULL " +
+            "WHERE l.partitionId = :partitionId AND l.owner = :owner")
+    int release(Integer partitionId, String owner);
+}
@@ -1,16 +1,85 @@
 package com.rwtool.repository;
 
+import com.rwtool.dto.SubscriptionRequestSummary;
 import com.rwtool.model.SubscriptionRequest;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SubscriptionRequestRepository extends JpaRepository<SubscriptionRequest, String> {
+public interface SubscriptionRequestRepository extends JpaRepository<SubscriptionRequest, String>,
+        SubscriptionRequestRepositoryCustom {
     List<SubscriptionRequest> findByStatus(String status);
     List<SubscriptionRequest> findByUserEmail(String userEmail);
     Optional<SubscriptionRequest> findByUserEmailAndDomainIdAndStatus(String userEmail, String domainId, String status);
     List<SubscriptionRequest> findByUserEmailOrderByRequestedDateDesc(String userEmail);
+
+    // One row per status: [status, count]
+    @Query("SELECT r.status, COUNT(r) FROM SubscriptionRequest r GROUP BY r.status")
+    List<Object[]> countByStatus();
+
+    // One row per approved entitlement: [userEmail, domainId]
+    @Query("SELECT r.userEmail, r.domainId FROM SubscriptionRequest r WHERE r.status = 'APPROVED'")
+    List<Object[]> findApprovedUserDomains();
+
+    String SUMMARY_SELECT = "SELECT new com.rwtool.dto.SubscriptionRequestSummary(" +
+            "r.id, r.userName, r.userEmail, r.userDepartment, r.userRole, r.domainId, r.domainName, " +
+            "r.status, r.requestedDate, r.reviewedDate) FROM SubscriptionRequest r ";
+
+    @Query(SUMMARY_SELECT + "ORDER BY r.requestedDate DESC")
+    List<SubscriptionRequestSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE r.status = :status ORDER BY r.requestedDate DESC")
+    List<SubscriptionRequestSummary> findSummariesByStatus(String status);
+
+    @Query(SUMMARY_SELECT + "WHERE r.userEmail = :userEmail ORDER BY r.requestedDate DESC")
+    List<SubscriptionRequestSummary> findSummariesByUserEmail(String userEmail);
+
+    // Row-locks the requests so a concurrent review cannot change them before the bulk update
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SUMMARY_SELECT + "WHERE r.id IN :ids")
+    List<SubscriptionRequestSummary> findSummariesByIdForUpdate(Collection<String> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SubscriptionRequest r SET r.status = :newStatus, r.reviewedDate = :reviewedDate, " +
+           "r.rejectionReason = :rejectionReason, r.version = r.version + 1 " +
+           "WHERE r.id IN :ids AND r.status = 'PENDING'")
+    int updateStatusIfPending(Collection<String> ids, String newStatus, LocalDateTime reviewedDate,
+                              String rejectionReason);
+
+    // Single-statement review: returns 0 if the request is missing or no longer pending
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SubscriptionRequest r SET r.status = :newStatus, r.reviewedDate = :reviewedDate, " +
+           "r.rejectionReason = :rejectionReason, r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status = 'PENDING'")
+    int transitionIfPending(String id, String newStatus, LocalDateTime reviewedDate, String rejectionReason);
+
+    // PostgreSQL only: the same review, returning the updated row; empty if missing or no longer pending
+    @Query(value = "UPDATE subscription_requests SET status = :newStatus, reviewed_date = :reviewedDate, " +
+            "rejection_reason = :rejectionReason, version = version + 1 " +
+            "WHERE id = :id AND status = 'PENDING' RETURNING *", nativeQuery = true)
+    Optional<SubscriptionRequest> transitionIfPendingReturning(String id, String newStatus,
+                                                               LocalDateTime reviewedDate, String rejectionReason);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM SubscriptionRequest r WHERE r.id = :id AND r.userEmail = :userEmail AND r.status = 'PENDING'")
+    int deleteIfPending(String id, String userEmail);
+
+    // Returns 0 when ux_subscription_requests_active already holds an active request for the user and domain
+    @Modifying
+    @Query(value = "INSERT INTO subscription_requests (id, user_name, user_email, domain_id, domain_name, " +
+            "request_reason, status, requested_date, user_department, user_role, version) VALUES (" +
+            ":#{#r.id}, :#{#r.userName}, :#{#r.userEmail}, :#{#r.domainId}, :#{#r.domainName}, " +
+            ":#{#r.requestReason}, :#{#r.status}, :#{#r.requestedDate}, :#{#r.userDepartment}, :#{#r.userRole}, 0) " +
+            "ON CONFLICT (user_email, domain_id) WHERE status IN ('PENDING', 'APPROVED') DO NOTHING", nativeQuery = true)
+    int insertIfNoActiveRequest(@Param("r") SubscriptionRequest r);
 }
@@ -0,0 +1,14 @@
+package com.rwtool.repository;
+
+import com.rwtool.dto.SubscriptionRequestSummary;
+import com.rwtool.model.SubscriptionRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface SubscriptionRequestRepositoryCustom {
+
+    // Fetch only the list columns for requests matching spec; limit <= 0 means no limit
+    List<SubscriptionRequestSummary> findSummaries(Specification<SubscriptionRequest> spec, Sort sort, int limit);
+}
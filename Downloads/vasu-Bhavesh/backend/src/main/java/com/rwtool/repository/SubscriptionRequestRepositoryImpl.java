@@ -0,0 +1,43 @@
+package com.rwtool.repository;
+
+import com.rwtool.dto.SubscriptionRequestSummary;
+import com.rwtool.model.SubscriptionRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class SubscriptionRequestRepositoryImpl implements SubscriptionRequestRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SubscriptionRequestSummary> findSummaries(Specification<SubscriptionRequest> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SubscriptionRequestSummary> query = cb.createQuery(SubscriptionRequestSummary.class);
+        Root<SubscriptionRequest> root = query.from(SubscriptionRequest.class);
+        query.select(cb.construct(SubscriptionRequestSummary.class,
+                root.get("id"), root.get("userName"), root.get("userEmail"), root.get("userDepartment"),
+                root.get("userRole"), root.get("domainId"), root.get("domainName"), root.get("status"),
+                root.get("requestedDate"), root.get("reviewedDate")));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        TypedQuery<SubscriptionRequestSummary> typed = entityManager.createQuery(query);
+        if (limit > 0) typed.setMaxResults(limit);
+        return typed.getResultList();
+    }
+}
@@ -0,0 +1,50 @@
+package com.rwtool.repository;
+
+import com.rwtool.model.SubscriptionRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Composable subscription request predicates for the review queue.
+ */
+public final class SubscriptionRequestSpecifications {
+
+    private SubscriptionRequestSpecifications() {
+    }
+
+    public static Specification<SubscriptionRequest> hasStatus(String status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<SubscriptionRequest> hasDomainId(String domainId) {
+        return (root, query, cb) -> cb.equal(root.get("domainId"), domainId);
+    }
+
+    public static Specification<SubscriptionRequest> hasUserDepartment(String department) {
+        return (root, query, cb) -> cb.equal(root.get("userDepartment"), department);
+    }
+
+    /**
+     * Keyset position: rows strictly after (requestedDate, id) in ascending order,
+     * or strictly before it when descending. Requests without a requestedDate sort after all
+     * dated ones (nulls last ascending, first descending); a null requestedDate is such a position.
+     */
+    public static Specification<SubscriptionRequest> afterPosition(LocalDateTime requestedDate, String id,
+                                                                   boolean descending) {
+        return (root, query, cb) -> {
+            if (requestedDate == null) {
+                return descending
+                        ? cb.or(cb.isNotNull(root.get("requestedDate")),
+                                cb.lessThan(root.get("id"), id))
+                        : cb.and(cb.isNull(root.get("requestedDate")), cb.greaterThan(root.get("id"), id));
+            }
+            return descending
+                    ? cb.or(cb.lessThan(root.get("requestedDate"), requestedDate),
+                            cb.and(cb.equal(root.get("requestedDate"), requestedDate), cb.lessThan(root.get("id"), id)))
+                    : cb.or(cb.greaterThan(root.get("requestedDate"), requestedDate),
+                            cb.and(cb.equal(root.get("requestedDate"), requestedDate), cb.greaterThan(root.get("id"), id)),
+                            cb.isNull(root.get("requestedDate")));
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.rwtool.repository;
+
+import com.rwtool.model.TableVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface TableVersionRepository extends JpaRepository<TableVersion, String> {
+
+    @Query("SELECT v.version FROM TableVersion v WHERE v.tableName = :tableName")
+    Optional<Long> findVersion(String tableName);
+
+    // Creates the counter at 0; never touches an existing one (the key is the only constraint)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO table_versions (table_name, version) VALUES (:tableName, 0) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String tableName);
+
+    // Joins the caller's transaction, so the new version commits or rolls back with the change
+    @Transactional
+    @Modifying
+    @Query("UPDATE TableVersion v SET v.version = v.version + 1 WHERE v.tableName = :tableName")
+    int increment(String tableName);
+}
@@ -0,0 +1,14 @@
+package com.rwtool.repository;
+
+import com.rwtool.dto.AuditLogSummary;
+import com.rwtool.model.UserActivityLog;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserActivityLogRepositoryCustom {
+
+    // Fetch only the table columns for logs matching spec; limit <= 0 means no limit
+    List<AuditLogSummary> findSummaries(Specification<UserActivityLog> spec, Sort sort, int limit);
+}
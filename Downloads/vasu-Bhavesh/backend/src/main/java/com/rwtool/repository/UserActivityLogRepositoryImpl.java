@@ -0,0 +1,42 @@
+package com.rwtool.repository;
+
+import com.rwtool.dto.AuditLogSummary;
+import com.rwtool.model.UserActivityLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class UserActivityLogRepositoryImpl implements UserActivityLogRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuditLogSummary> findSummaries(Specification<UserActivityLog> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditLogSummary> query = cb.createQuery(AuditLogSummary.class);
+        Root<UserActivityLog> root = query.from(UserActivityLog.class);
+        query.select(cb.construct(AuditLogSummary.class,
+                root.get("id"), root.get("timestamp"), root.get("userEmail"), root.get("userName"),
+                root.get("userRole"), root.get("action"), root.get("details"), root.get("status")));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        TypedQuery<AuditLogSummary> typed = entityManager.createQuery(query);
+        if (limit > 0) typed.setMaxResults(limit);
+        return typed.getResultList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.rwtool.repository;
+
+import com.rwtool.model.UserActivityLog;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+
+/**
+ * Composable audit log predicates. Only the filters actually supplied end up in the SQL,
+ * so PostgreSQL can plan each combination against the matching index.
+ */
+public final class UserActivityLogSpecifications {
+
+    private UserActivityLogSpecifications() {
+    }
+
+    public static Specification<UserActivityLog> withFilters(String userRole, String action, String status,
+                                                             Instant startDate, Instant endDate) {
+        Specification<UserActivityLog> spec = timestampBetween(startDate, endDate);
+        if (userRole != null) spec = spec.and(hasUserRole(userRole));
+        if (action != null) spec = spec.and(hasAction(action));
+        if (status != null) spec = spec.and(hasStatus(status));
+        return spec;
+    }
+
+    public static Specification<UserActivityLog> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<UserActivityLog> timestampBetween(Instant startDate, Instant endDate) {
+        return (root, query, cb) -> cb.between(root.get("timestamp"), startDate, endDate);
+    }
+
+    public static Specification<UserActivityLog> hasUserRole(String userRole) {
+        return (root, query, cb) -> cb.equal(root.get("userRole"), userRole);
+    }
+
+    public static Specification<UserActivityLog> hasAction(String action) {
+        return (root, query, cb) -> cb.equal(root.get("action"), action);
+    }
+
+    public static Specification<UserActivityLog> hasStatus(String status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<UserActivityLog> hasUserEmail(String userEmail) {
+        return (root, query, cb) -> cb.equal(root.get("userEmail"), userEmail);
+    }
+
+    // Case-insensitive substring match on email, name, action or details
+    public static Specification<UserActivityLog> matchesSearchTerm(String searchTerm) {
+        return (root, query, cb) -> {
+            String pattern = "%" + searchTerm.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("userEmail")), pattern),
+                    cb.like(cb.lower(root.get("userName")), pattern),
+                    cb.like(cb.lower(root.get("action")), pattern),
+                    cb.like(cb.lower(root.get("details")), pattern));
+        };
+    }
+}
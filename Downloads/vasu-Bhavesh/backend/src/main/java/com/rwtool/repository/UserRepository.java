@@ -2,6 +2,7 @@ package com.rwtool.repository;
 
 import com.rwtool.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +13,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     Boolean existsByEmail(String email);
+
+    @Query("SELECT u.isActive FROM User u WHERE u.email = :email")
+    Optional<Boolean> findActiveByEmail(String email);
 }
@@ -0,0 +1,172 @@
+package com.rwtool.service;
+
+import com.rwtool.model.RevokedAccessToken;
+import com.rwtool.repository.RevokedAccessTokenRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked access token ids (jti), checked on every authenticated request.
+ *
+ * Membership is tested against an in-memory Bloom filter, so the common case (token not
+ * revoked) never touches the database. A filter hit is confirmed with an exact lookup, which
+ * only happens for revoked tokens and the rare false positive. The filter is rebuilt from the
+ * database on a fixed interval, picking up revocations made by other instances and dropping
+ * tokens that have expired anyway; local revocations are added immediately.
+ */
+@Service
+public class AccessTokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenRevocationList.class);
+
+    private final RevokedAccessTokenRepository repository;
+    private final ScheduledExecutorService sync;
+    private volatile BloomFilter filter;
+    // Local revocations made while a rebuild is querying, added to the rebuilt filter
+    private List<String> revokedDuringReload;
+
+    @Value("${app.auth.revocation.expectedEntries:10000}")
+    private int expectedEntries;
+
+    @Value("${app.auth.revocation.falsePositiveRate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${app.auth.revocation.syncMs:30000}")
+    private long syncMs;
+
+    public AccessTokenRevocationList(RevokedAccessTokenRepository repository) {
+        this.repository = repository;
+        this.filter = new BloomFilter(1024, 0.001);
+        this.sync = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-revocation-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        sync.scheduleWithFixedDelay(this::reloadQuietly, syncMs, syncMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return repository.existsById(jti);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.isBefore(Instant.now())) return;
+        repository.save(new RevokedAccessToken(jti, expiresAt));
+        synchronized (this) {
+            filter.put(jti);
+            if (revokedDuringReload != null) revokedDuringReload.add(jti);
+        }
+    }
+
+    public void reload() {
+        synchronized (this) {
+            revokedDuringReload = new ArrayList<>();
+        }
+        Instant now = Instant.now();
+        repository.deleteExpired(now);
+        List<String> jtis = repository.findActiveJtis(now);
+        // Headroom so revocations until the next sync keep the false positive rate in bounds
+        BloomFilter fresh = new BloomFilter(Math.max(expectedEntries, jtis.size() * 2), falsePositiveRate);
+        jtis.forEach(fresh::put);
+        synchronized (this) {
+            revokedDuringReload.forEach(fresh::put);
+            revokedDuringReload = null;
+            filter = fresh;
+        }
+        logger.debug("Access token revocation filter rebuilt with {} entries", jtis.size());
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.warn("Could not sync access token revocations: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sync.shutdownNow();
+    }
+
+    /**
+     * Lock-free Bloom filter over an AtomicLongArray; k probes by double hashing of a 64-bit
+     * FNV-1a hash of the key.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (m + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+        }
+
+        void put(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0) {
+                    if (bits.compareAndSet(word, current, current | mask)) break;
+                }
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combined) {
+            return (combined & 0x7fffffffL) % bitCount;
+        }
+
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b;
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+}
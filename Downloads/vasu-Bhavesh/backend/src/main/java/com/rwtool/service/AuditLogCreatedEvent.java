@@ -0,0 +1,18 @@
+package com.rwtool.service;
+
+import com.rwtool.model.UserActivityLog;
+
+/**
+ * Published after a UserActivityLog row has been written.
+ */
+public class AuditLogCreatedEvent {
+    private final UserActivityLog log;
+
+    public AuditLogCreatedEvent(UserActivityLog log) {
+        this.log = log;
+    }
+
+    public UserActivityLog getLog() {
+        return log;
+    }
+}
@@ -0,0 +1,216 @@
+package com.rwtool.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams audit logs straight from a JDBC cursor into CSV or NDJSON.
+ * Rows are written as they are fetched, so memory stays constant regardless of export size.
+ */
+@Service
+public class AuditLogExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Format from(String value) {
+            if (value == null || value.isBlank()) return CSV;
+            try {
+                return Format.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format must be csv or ndjson");
+            }
+        }
+    }
+
+    private static final String[] COLUMNS = {
+            "id", "timestamp", "userEmail", "userName", "userRole", "action", "details", "status", "ipAddress"
+    };
+
+    private final JdbcTemplate cursorTemplate;
+    private final ObjectMapper objectMapper;
+
+    public AuditLogExportService(DataSource dataSource,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.audit.export.fetchSize:1000}") int fetchSize) {
+        // Dedicated template so the fetch size does not leak into other JDBC users.
+        // PostgreSQL only honours it (server-side cursor) inside a transaction, see exportLogs.
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write every log matching the same filters as getLogsWithFilters to the given stream.
+     * Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long exportLogs(String userRole, String action, String status, String dateRange,
+                           Format format, OutputStream out) throws IOException {
+        Instant endDate = Instant.now();
+        Instant startDate = UserActivityLogService.resolveStartDate(dateRange, endDate);
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, timestamp, user_email, user_name, user_role, action, details, status, ip_address " +
+                "FROM user_activity_logs WHERE timestamp BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.from(startDate));
+        args.add(Timestamp.from(endDate));
+        appendFilter(sql, args, "user_role", UserActivityLogService.normalizeFilter(userRole, "All Users"));
+        appendFilter(sql, args, "action", UserActivityLogService.normalizeFilter(action, "All Actions"));
+        appendFilter(sql, args, "status", UserActivityLogService.normalizeFilter(status, "All Status"));
+        sql.append(" ORDER BY timestamp DESC");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.NDJSON ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer);
+        long[] count = {0};
+        try {
+            rowWriter.begin();
+            cursorTemplate.query(sql.toString(), rs -> {
+                try {
+                    rowWriter.write(rs);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+            rowWriter.end();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count[0];
+    }
+
+    private void appendFilter(StringBuilder sql, List<Object> args, String column, String value) {
+        if (value != null) {
+            sql.append(" AND ").append(column).append(" = ?");
+            args.add(value);
+        }
+    }
+
+    private interface RowWriter {
+        void begin() throws IOException;
+        void write(ResultSet rs) throws SQLException, IOException;
+        void end() throws IOException;
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            Timestamp ts = rs.getTimestamp(2);
+            writer.write(ts != null ? ts.toInstant().toString() : "");
+            for (int i = 3; i <= COLUMNS.length; i++) {
+                writer.write(',');
+                writeField(rs.getString(i));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) return;
+            boolean quote = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    quote = true;
+                    break;
+                }
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') writer.write('"');
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+            Timestamp ts = rs.getTimestamp(2);
+            generator.writeStringField(COLUMNS[1], ts != null ? ts.toInstant().toString() : null);
+            for (int i = 3; i <= COLUMNS.length; i++) {
+                generator.writeStringField(COLUMNS[i - 1], rs.getString(i));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void end() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.rwtool.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rwtool.model.UserActivityLog;
+import com.rwtool.repository.UserActivityLogRepository;
+import com.rwtool.repository.UserActivityLogSpecifications;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes newly written audit logs to connected SSE viewers.
+ *
+ * The write path only hands the event to a dispatcher thread. The dispatcher serializes each
+ * event once and offers it to every matching viewer's bounded queue; each queue is drained on a
+ * shared pool, so a slow viewer never blocks writers or other viewers. A viewer whose queue
+ * overflows is disconnected and resumes from the database via Last-Event-ID. If more than
+ * replayLimit events were missed, nothing is replayed: the viewer gets a single reset event
+ * instead and should reload its list (e.g. from /api/audit-logs/recent) before using the stream.
+ */
+@Service
+public class AuditLogStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogStreamService.class);
+    private static final String EVENT_NAME = "audit-log";
+    private static final String RESET_EVENT_NAME = "reset";
+
+    private final UserActivityLogRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor dispatcher;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeat;
+
+    @Value("${app.audit.stream.timeoutMs:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.audit.stream.queueCapacity:256}")
+    private int queueCapacity;
+
+    @Value("${app.audit.stream.replayLimit:1000}")
+    private int replayLimit;
+
+    public AuditLogStreamService(UserActivityLogRepository repository, ObjectMapper objectMapper,
+                                 @Value("${app.audit.stream.senderThreads:4}") int senderThreads) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10_000), daemonThreads("audit-stream-dispatch"));
+        this.senders = Executors.newFixedThreadPool(senderThreads, daemonThreads("audit-stream-send"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreads("audit-stream-heartbeat"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeats, 20, 20, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Open a live stream. Events after lastEventId (if given) are replayed from the database first,
+     * or replaced by a reset event when there are more than replayLimit of them.
+     */
+    public SseEmitter subscribe(String userRole, String action, String status, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter,
+                UserActivityLogService.normalizeFilter(userRole, "All Users"),
+                UserActivityLogService.normalizeFilter(action, "All Actions"),
+                UserActivityLogService.normalizeFilter(status, "All Status"),
+                queueCapacity);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Register before replaying so nothing written in between is missed; duplicates are skipped by id.
+        subscribers.add(subscriber);
+        if (lastEventId != null) {
+            try {
+                replay(subscriber, lastEventId);
+            } catch (IOException e) {
+                subscribers.remove(subscriber);
+                emitter.completeWithError(e);
+                return emitter;
+            }
+        }
+        subscriber.live = true;
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLogCreated(AuditLogCreatedEvent event) {
+        if (subscribers.isEmpty()) return;
+        try {
+            dispatcher.execute(() -> fanOut(event.getLog()));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Audit stream dispatcher saturated, dropping live event {}", event.getLog().getId());
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) throws IOException {
+        Specification<UserActivityLog> spec = UserActivityLogSpecifications.idGreaterThan(lastEventId);
+        if (subscriber.userRole != null) spec = spec.and(UserActivityLogSpecifications.hasUserRole(subscriber.userRole));
+        if (subscriber.action != null) spec = spec.and(UserActivityLogSpecifications.hasAction(subscriber.action));
+        if (subscriber.status != null) spec = spec.and(UserActivityLogSpecifications.hasStatus(subscriber.status));
+        // One extra row tells us whether the gap is larger than the replay limit
+        List<UserActivityLog> missed = repository.findBy(spec,
+                q -> q.sortBy(Sort.by(Sort.Direction.ASC, "id")).limit(replayLimit + 1).all());
+        if (missed.size() > replayLimit) {
+            subscriber.sendReset(replayLimit);
+            return;
+        }
+        for (UserActivityLog log : missed) {
+            subscriber.send(new Payload(log.getId(), serialize(log)));
+            subscriber.replayedUpTo = log.getId();
+        }
+    }
+
+    private void fanOut(UserActivityLog log) {
+        Payload payload = null;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.matches(log)) continue;
+            if (payload == null) {
+                payload = new Payload(log.getId(), serialize(log));
+            }
+            if (!subscriber.queue.offer(payload)) {
+                // Too far behind; let the client reconnect and catch up via Last-Event-ID
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+                continue;
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.live && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Payload payload;
+            while ((payload = subscriber.queue.poll()) != null) {
+                subscriber.send(payload);
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            senders.execute(() -> {
+                try {
+                    synchronized (subscriber) {
+                        subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                }
+            });
+        }
+    }
+
+    private String serialize(UserActivityLog log) {
+        try {
+            return objectMapper.writeValueAsString(log);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize audit log " + log.getId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+    }
+
+    private static java.util.concurrent.ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static class Payload {
+        final long id;
+        final String json;
+
+        Payload(long id, String json) {
+            this.id = id;
+            this.json = json;
+        }
+    }
+
+    private static class Subscriber {
+        final SseEmitter emitter;
+        final String userRole;
+        final String action;
+        final String status;
+        final BlockingQueue<Payload> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean live;
+        long replayedUpTo;
+
+        Subscriber(SseEmitter emitter, String userRole, String action, String status, int capacity) {
+            this.emitter = emitter;
+            this.userRole = userRole;
+            this.action = action;
+            this.status = status;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        boolean matches(UserActivityLog log) {
+            return (userRole == null || userRole.equals(log.getUserRole()))
+                    && (action == null || action.equals(log.getAction()))
+                    && (status == null || status.equals(log.getStatus()));
+        }
+
+        synchronized void send(Payload payload) throws IOException {
+            // Live events already delivered by the Last-Event-ID replay
+            if (payload.id <= replayedUpTo) return;
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(payload.id))
+                    .name(EVENT_NAME)
+                    .data(payload.json, MediaType.APPLICATION_JSON));
+        }
+
+        // No id, so the client keeps its Last-Event-ID until the next live event
+        synchronized void sendReset(int replayLimit) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name(RESET_EVENT_NAME)
+                    .data(Map.of("reason", "replay-truncated", "replayLimit", replayLimit),
+                            MediaType.APPLICATION_JSON));
+        }
+    }
+}
@@ -8,8 +8,9 @@ import com.rwtool.exception.EmailAlreadyExistsException;
 import com.rwtool.exception.InvalidCredentialsException;
 import com.rwtool.model.User;
 import com.rwtool.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,11 +21,17 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private AccessTokenRevocationList revocationList;
+    
     @Transactional
     public AuthResponse signup(SignupRequest request) {
         // Check if email already exists
@@ -38,7 +45,7 @@ public class AuthService {
         user.setEmail(request.getEmail());
         user.setPhoneNumber(request.getPhoneNumber());
         user.setDomain(request.getDomain());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         
         // Set role
         try {
@@ -50,18 +57,7 @@ public class AuthService {
         // Save user
         User savedUser = userRepository.save(user);
         
-        // Generate JWT token
-        String token = jwtUtil.generateToken(savedUser.getEmail(), savedUser.getRole().name());
-        
-        return new AuthResponse(
-                token,
-                savedUser.getId(),
-                savedUser.getEmail(),
-                savedUser.getFullName(),
-                savedUser.getRole().name(),
-                savedUser.getPhoneNumber(),
-                savedUser.getDomain()
-        );
+        return buildResponse(savedUser, refreshTokenService.issue(savedUser.getEmail()));
     }
     
     public AuthResponse login(LoginRequest request) {
@@ -70,19 +66,59 @@ public class AuthService {
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
         
         // Check if user is active
-        if (!user.getIsActive()) {
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
             throw new InvalidCredentialsException("Account is deactivated");
         }
         
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new InvalidCredentialsException("Invalid email or password");
         }
         
+        return buildResponse(user, refreshTokenService.issue(user.getEmail()));
+    }
+    
+    /**
+     * Exchange a refresh token for a new access token and a new refresh token.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findByEmail(rotation.getUserEmail())
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+        
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
+            refreshTokenService.revokeFamily(rotation.getFamilyId());
+            throw new InvalidCredentialsException("Account is deactivated");
+        }
+        
+        return buildResponse(user, rotation.getRefreshToken());
+    }
+    
+    /**
+     * Revoke the refresh token family and, if given and still valid, the access token.
+     * Returns the access token claims so the caller can audit who logged out, or null.
+     */
+    public Claims logout(String refreshToken, String accessToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        if (accessToken == null) {
+            return null;
+        }
+        try {
+            Claims claims = jwtUtil.verify(accessToken);
+            revocationList.revoke(claims.getId(), claims.getExpiration().toInstant());
+            return claims;
+        } catch (JwtException e) {
+            return null; // already invalid or expired
+        }
+    }
+    
+    private AuthResponse buildResponse(User user, String refreshToken) {
         // Generate JWT token
         String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
         
-        return new AuthResponse(
+        AuthResponse response = new AuthResponse(
                 token,
                 user.getId(),
                 user.getEmail(),
@@ -91,5 +127,8 @@ public class AuthService {
                 user.getPhoneNumber(),
                 user.getDomain()
         );
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(jwtUtil.getExpirationSeconds());
+        return response;
     }
 }
@@ -1,8 +1,12 @@
 package com.rwtool.service;
 
+import com.rwtool.config.CacheConfig;
 import com.rwtool.model.Domain;
 import com.rwtool.repository.DomainRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,16 +19,22 @@ public class DomainService {
     @Autowired
     private DomainRepository domainRepository;
 
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Cacheable(CacheConfig.DOMAINS)
     public List<Domain> getAllDomains() {
         return domainRepository.findAll();
     }
 
+    @Cacheable(value = CacheConfig.DOMAIN_BY_ID, key = "#id")
     public Domain getDomainById(String id) {
         return domainRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Domain not found with id: " + id));
     }
 
     @Transactional
+    @CacheEvict(value = CacheConfig.DOMAINS, allEntries = true)
     public Domain addDomain(Domain domain) {
         // Check if domain with same name already exists
         if (domainRepository.existsByNameIgnoreCase(domain.getName())) {
@@ -32,10 +42,15 @@ public class DomainService {
         }
         
         domain.setId(UUID.randomUUID().toString());
+        tableVersions.bump(TableVersions.DOMAINS);
         return domainRepository.save(domain);
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.DOMAINS, allEntries = true),
+            @CacheEvict(value = CacheConfig.DOMAIN_BY_ID, key = "#id")
+    })
     public Domain updateDomain(String id, Domain domainDetails) {
         Domain domain = getDomainById(id);
         
@@ -47,12 +62,18 @@ public class DomainService {
         
         domain.setName(domainDetails.getName());
         domain.setDescription(domainDetails.getDescription());
+        tableVersions.bump(TableVersions.DOMAINS);
         return domainRepository.save(domain);
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.DOMAINS, allEntries = true),
+            @CacheEvict(value = CacheConfig.DOMAIN_BY_ID, key = "#id")
+    })
     public void deleteDomain(String id) {
         Domain domain = getDomainById(id);
         domainRepository.delete(domain);
+        tableVersions.bump(TableVersions.DOMAINS);
     }
 }
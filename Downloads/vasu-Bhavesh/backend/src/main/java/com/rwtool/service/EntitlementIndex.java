@@ -0,0 +1,189 @@
+package com.rwtool.service;
+
+import com.rwtool.repository.SubscriptionRequestRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approved user x domain access, held in memory so access checks never hit the database.
+ *
+ * Domain ids are interned to small ints and each user maps to a BitSet of the domains they
+ * are approved for. Bitsets are copy-on-write: writers publish a new set, so readers need no
+ * locking. The index is loaded once before the first check (callers arriving meanwhile wait
+ * for it), updated by SubscriptionRequestService after each committed review, and re-loaded
+ * on a background thread so changes made by other instances converge.
+ *
+ * User emails are not interned: each is held once, as the map key, and a reload keeps the
+ * existing key when it replaces a user's bitset.
+ */
+@Component
+public class EntitlementIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntitlementIndex.class);
+
+    private final SubscriptionRequestRepository repository;
+    private final ScheduledExecutorService refresher;
+    private final Object initialLoad = new Object();
+
+    private final Map<String, Integer> domainIndex = new ConcurrentHashMap<>();
+    private volatile String[] domainIds = new String[16];
+    private final Map<String, BitSet> userDomains = new ConcurrentHashMap<>();
+
+    // Changes committed while a reload query is running, re-applied on top of the loaded snapshot
+    private List<Change> changesDuringReload;
+    private volatile boolean loaded;
+
+    @Value("${app.entitlements.refreshMs:300000}")
+    private long refreshMs;
+
+    public EntitlementIndex(SubscriptionRequestRepository repository) {
+        this.repository = repository;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "entitlement-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ensureLoaded();
+        refresher.scheduleWithFixedDelay(this::reloadQuietly, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean hasAccess(String userEmail, String domainId) {
+        ensureLoaded();
+        Integer domain = domainIndex.get(domainId);
+        if (domain == null || userEmail == null) return false;
+        BitSet domains = userDomains.get(userEmail);
+        return domains != null && domains.get(domain);
+    }
+
+    public Set<String> domainsFor(String userEmail) {
+        ensureLoaded();
+        BitSet domains = userEmail != null ? userDomains.get(userEmail) : null;
+        if (domains == null) return Collections.emptySet();
+        String[] ids = domainIds;
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = domains.nextSetBit(0); i >= 0; i = domains.nextSetBit(i + 1)) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    public synchronized void grant(String userEmail, String domainId) {
+        if (changesDuringReload != null) changesDuringReload.add(new Change(userEmail, domainId, true));
+        apply(userDomains, userEmail, domainId, true);
+    }
+
+    public synchronized void revoke(String userEmail, String domainId) {
+        if (changesDuringReload != null) changesDuringReload.add(new Change(userEmail, domainId, false));
+        apply(userDomains, userEmail, domainId, false);
+    }
+
+    public void reload() {
+        synchronized (this) {
+            if (changesDuringReload != null) return; // another thread is already reloading
+            changesDuringReload = new ArrayList<>();
+        }
+        try {
+            Map<String, BitSet> fresh = new HashMap<>();
+            for (Object[] row : repository.findApprovedUserDomains()) {
+                BitSet domains = fresh.computeIfAbsent((String) row[0], u -> new BitSet());
+                domains.set(intern((String) row[1]));
+            }
+            synchronized (this) {
+                for (Change change : changesDuringReload) {
+                    apply(fresh, change.userEmail, change.domainId, change.granted);
+                }
+                userDomains.keySet().retainAll(fresh.keySet());
+                userDomains.putAll(fresh);
+                loaded = true;
+            }
+            logger.info("Entitlement index loaded: {} users, {} domains", fresh.size(), domainIndex.size());
+        } finally {
+            synchronized (this) {
+                changesDuringReload = null;
+            }
+        }
+    }
+
+    // Only the first load blocks callers; later reloads run on the refresher thread
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (initialLoad) {
+            if (!loaded) reload();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the entitlement index: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void apply(Map<String, BitSet> target, String userEmail, String domainId, boolean granted) {
+        BitSet current = target.get(userEmail);
+        if (!granted && current == null) return;
+        BitSet next = current != null ? (BitSet) current.clone() : new BitSet();
+        next.set(intern(domainId), granted);
+        if (next.isEmpty()) {
+            target.remove(userEmail);
+        } else {
+            target.put(userEmail, next);
+        }
+    }
+
+    private synchronized int intern(String domainId) {
+        Integer existing = domainIndex.get(domainId);
+        if (existing != null) return existing;
+        int index = domainIndex.size();
+        String[] ids = domainIds;
+        if (index == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[index] = domainId;
+        // Publish the reverse mapping before the forward one so readers never see an unmapped bit
+        domainIds = ids;
+        domainIndex.put(domainId, index);
+        return index;
+    }
+
+    private static class Change {
+        final String userEmail;
+        final String domainId;
+        final boolean granted;
+
+        Change(String userEmail, String domainId, boolean granted) {
+            this.userEmail = userEmail;
+            this.domainId = domainId;
+            this.granted = granted;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.rwtool.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * On-demand Java Flight Recorder recording for production profiling, driven from the ops
+ * endpoints. It captures the JVM's own events plus the com.rwtool.* events for routed files,
+ * Graph calls, Graph token refreshes and log inserts. At most one recording runs at a time;
+ * it keeps a rolling window of maxAge so it can stay on and be dumped when something is slow.
+ */
+@Service
+public class FlightRecorderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderService.class);
+
+    @Value("${app.jfr.dumpDir:${java.io.tmpdir}}")
+    private String dumpDir;
+
+    @Value("${app.jfr.maxSizeMb:256}")
+    private long maxSizeMb;
+
+    private Recording recording;
+
+    /**
+     * Start a recording with a built-in JFR configuration ("default", about 1% overhead, or
+     * "profile") keeping the last maxAge of data.
+     */
+    public synchronized Map<String, Object> start(String settings, Duration maxAge) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+        closeRecording();
+        Recording r = new Recording(configuration);
+        r.setName("rwtool-ops");
+        r.setToDisk(true);
+        r.setMaxAge(maxAge);
+        r.setMaxSize(maxSizeMb * 1024 * 1024);
+        r.enable("com.rwtool.*");
+        r.start();
+        recording = r;
+        logger.info("JFR recording started with '{}' settings, max age {}", settings, maxAge);
+        return status();
+    }
+
+    /**
+     * Write what the recording holds so far to a new file under dumpDir, leaving it running.
+     * The caller deletes the file once it has been sent.
+     */
+    public synchronized Path dump() {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            throw new IllegalStateException("No recording to dump");
+        }
+        try {
+            Path dir = Files.createDirectories(Paths.get(dumpDir));
+            Path file = Files.createTempFile(dir, "rwtool-", ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not dump JFR recording", e);
+        }
+    }
+
+    public synchronized Map<String, Object> stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        recording.stop();
+        logger.info("JFR recording stopped");
+        return status();
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("maxAgeSeconds", recording.getMaxAge() != null ? recording.getMaxAge().getSeconds() : null);
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.rwtool.service;
+
+import com.rwtool.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-email and per-IP token buckets for the login and signup endpoints, checked before any
+ * password hashing is done.
+ *
+ * Each key hashes to one of a fixed number of stripes, so memory stays bounded however many
+ * distinct emails or addresses an attacker cycles through; keys sharing a stripe share its
+ * budget. A stripe is a single long holding the time its bucket next becomes empty (GCRA),
+ * updated with compare-and-set, so no locks are taken.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Buckets emailBuckets;
+    private final Buckets ipBuckets;
+    // Clock origin so bucket times start at zero like the stripes do
+    private final long origin = System.nanoTime();
+
+    public LoginThrottle(@Value("${app.auth.throttle.stripes:4096}") int stripes,
+                         @Value("${app.auth.throttle.email.burst:5}") int emailBurst,
+                         @Value("${app.auth.throttle.email.perMinute:5}") int emailPerMinute,
+                         @Value("${app.auth.throttle.ip.burst:20}") int ipBurst,
+                         @Value("${app.auth.throttle.ip.perMinute:30}") int ipPerMinute) {
+        this.emailBuckets = new Buckets(stripes, emailBurst, emailPerMinute);
+        this.ipBuckets = new Buckets(stripes, ipBurst, ipPerMinute);
+    }
+
+    /**
+     * Take one token from both the email and the IP bucket.
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void acquire(String email, String ipAddress) {
+        long now = System.nanoTime() - origin;
+        long ipWait = ipAddress != null ? ipBuckets.tryAcquire(ipAddress, now) : 0;
+        if (ipWait > 0) {
+            throw new TooManyRequestsException("Too many attempts from this address, please retry later",
+                    toSeconds(ipWait));
+        }
+        long emailWait = email != null ? emailBuckets.tryAcquire(email.trim().toLowerCase(Locale.ROOT), now) : 0;
+        if (emailWait > 0) {
+            throw new TooManyRequestsException("Too many attempts for this account, please retry later",
+                    toSeconds(emailWait));
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static class Buckets {
+        private final AtomicLongArray emptyAt;
+        private final int mask;
+        private final long interval;
+        private final long tolerance;
+
+        Buckets(int stripes, int burst, int perMinute) {
+            int size = Integer.highestOneBit(Math.max(stripes, 1) - 1) << 1;
+            this.emptyAt = new AtomicLongArray(Math.max(size, 1));
+            this.mask = emptyAt.length() - 1;
+            this.interval = TimeUnit.MINUTES.toNanos(1) / Math.max(perMinute, 1);
+            this.tolerance = interval * Math.max(burst, 1);
+        }
+
+        // Returns 0 if a token was taken, otherwise nanos until one is available
+        long tryAcquire(String key, long now) {
+            int h = key.hashCode();
+            int stripe = (h ^ (h >>> 16)) & mask;
+            while (true) {
+                long current = emptyAt.get(stripe);
+                // A bucket that emptied in the past has refilled
+                long base = Math.max(current, now);
+                long next = base + interval;
+                long wait = next - now - tolerance;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (emptyAt.compareAndSet(stripe, current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.rwtool.service;
 
+import com.rwtool.config.CacheConfig;
 import com.rwtool.dto.PageResponse;
 import com.rwtool.dto.PathConfigRequest;
+import com.rwtool.dto.PathConfigSummary;
 import com.rwtool.model.PathConfig;
 import com.rwtool.repository.PathConfigRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,20 +20,24 @@ import java.util.Optional;
 @Service
 public class PathConfigService {
     private final PathConfigRepository repository;
+    private final TableVersions tableVersions;
 
-    public PathConfigService(PathConfigRepository repository) {
+    public PathConfigService(PathConfigRepository repository, TableVersions tableVersions) {
         this.repository = repository;
+        this.tableVersions = tableVersions;
     }
 
-    public PageResponse<PathConfig> list(String search, int page, int pageSize) {
+    @Cacheable(value = CacheConfig.PATH_CONFIG_PAGES, key = "#search + ':' + #page + ':' + #pageSize")
+    public PageResponse<PathConfigSummary> list(String search, int page, int pageSize) {
         Pageable pageable = PageRequest.of(Math.max(page - 1, 0), pageSize);
-        Page<PathConfig> result = (search == null || search.isBlank())
-                ? repository.findAll(pageable)
-                : repository.search(search, pageable);
+        Page<PathConfigSummary> result = (search == null || search.isBlank())
+                ? repository.findSummaries(pageable)
+                : repository.searchSummaries(search, pageable);
         return new PageResponse<>(result.getContent(), result.getTotalElements(), page, pageSize);
     }
 
     @Transactional
+    @CacheEvict(value = CacheConfig.PATH_CONFIG_PAGES, allEntries = true)
     public PathConfig create(PathConfigRequest req) {
         validate(req);
         if (repository.existsByPrefixIgnoreCase(req.getPrefix())) {
@@ -39,10 +48,15 @@ public class PathConfigService {
         pc.setSourcePath(req.getSourcePath().trim());
         pc.setOutputPath(req.getOutputPath().trim());
         pc.setStatus(req.getStatus());
+        tableVersions.bump(TableVersions.PATH_CONFIGS);
         return repository.save(pc);
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.PATH_CONFIG_PAGES, allEntries = true),
+            @CacheEvict(value = CacheConfig.PATH_CONFIG_BY_ID, key = "#id")
+    })
     public PathConfig update(Long id, PathConfigRequest req) {
         validate(req);
         PathConfig existing = repository.findById(id)
@@ -54,16 +68,23 @@ public class PathConfigService {
         existing.setSourcePath(req.getSourcePath().trim());
         existing.setOutputPath(req.getOutputPath().trim());
         existing.setStatus(req.getStatus());
+        tableVersions.bump(TableVersions.PATH_CONFIGS);
         return repository.save(existing);
     }
 
+    @Cacheable(value = CacheConfig.PATH_CONFIG_BY_ID, key = "#id", unless = "#result == null")
     public Optional<PathConfig> get(Long id) {
         return repository.findById(id);
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.PATH_CONFIG_PAGES, allEntries = true),
+            @CacheEvict(value = CacheConfig.PATH_CONFIG_BY_ID, key = "#id")
+    })
     public void delete(Long id) {
         repository.deleteById(id);
+        tableVersions.bump(TableVersions.PATH_CONFIGS);
     }
 
     private void validate(PathConfigRequest req) {
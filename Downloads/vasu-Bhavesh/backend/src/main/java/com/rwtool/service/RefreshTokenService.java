@@ -0,0 +1,113 @@
+package com.rwtool.service;
+
+import com.rwtool.exception.InvalidCredentialsException;
+import com.rwtool.model.RefreshToken;
+import com.rwtool.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Raw tokens are only ever returned to the client;
+ * the database keeps their SHA-256.
+ */
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository repository;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.refreshExpiration:1209600000}")
+    private long refreshExpiration;
+
+    public RefreshTokenService(RefreshTokenRepository repository) {
+        this.repository = repository;
+    }
+
+    @Transactional
+    public String issue(String userEmail) {
+        return issue(userEmail, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Revoke the presented token and issue its successor. Presenting a token that was already
+     * rotated means it leaked (or was replayed), so the whole family is revoked.
+     *
+     * @return the email of the token owner and the new raw token
+     */
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = repository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+        if (token.getRevoked() || repository.revokeIfActive(token.getId()) == 0) {
+            repository.revokeFamily(token.getFamilyId());
+            throw new InvalidCredentialsException("Refresh token has been revoked");
+        }
+        if (token.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidCredentialsException("Refresh token has expired");
+        }
+        return new Rotation(token.getUserEmail(), token.getFamilyId(), issue(token.getUserEmail(), token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeFamily(String familyId) {
+        repository.revokeFamily(familyId);
+    }
+
+    // Revoke the presented token and every token rotated from the same login
+    @Transactional
+    public void revoke(String rawToken) {
+        repository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> repository.revokeFamily(token.getFamilyId()));
+    }
+
+    private String issue(String userEmail, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant now = Instant.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(raw));
+        token.setFamilyId(familyId);
+        token.setUserEmail(userEmail);
+        token.setIssuedAt(now);
+        token.setExpiresAt(now.plusMillis(refreshExpiration));
+        repository.save(token);
+        return raw;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class Rotation {
+        private final String userEmail;
+        private final String familyId;
+        private final String refreshToken;
+
+        Rotation(String userEmail, String familyId, String refreshToken) {
+            this.userEmail = userEmail;
+            this.familyId = familyId;
+            this.refreshToken = refreshToken;
+        }
+
+        public String getUserEmail() { return userEmail; }
+        public String getFamilyId() { return familyId; }
+        public String getRefreshToken() { return refreshToken; }
+    }
+}
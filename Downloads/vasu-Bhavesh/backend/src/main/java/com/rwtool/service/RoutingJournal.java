@@ -0,0 +1,337 @@
+package com.rwtool.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead journal of routing moves, so a run cut short by a crash can be finished.
+ *
+ * Each file move is journaled as INTENT before the move, MOVED after it and DONE once its
+ * routing log row is written. Records are appended to a memory-mapped file: a JVM crash loses
+ * nothing already written, since the pages belong to the OS, and the mapping is forced to disk
+ * every syncEvery records and at the end of each run, which bounds what a power loss can lose.
+ * On startup the records are replayed and the moves left without DONE are handed back through
+ * {@link #pending()}.
+ *
+ * The file holds a header and two record regions, only one of them active. To compact (at the
+ * end of a run, when the active region is full, and after replay) the moves still in flight are
+ * written to the other region and forced to disk, and only then is the header switched to it and
+ * forced. Until that switch the old region stays intact, so a crash at any point during
+ * compaction leaves one complete journal. The header is kept in two slots written alternately,
+ * each with a generation and CRC; the newest valid slot wins.
+ *
+ * Record layout: int length, body (type, id, and for INTENT the time and the strings, each an
+ * int byte count, -1 for null, then UTF-8), CRC32 of the body. The length is written last and followed by a zero length, so replay stops cleanly
+ * at the first torn or missing record. The journal is disabled (every call a no-op) when
+ * app.routing.journal.enabled is false, or when another process has the file open.
+ */
+@Component
+public class RoutingJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingJournal.class);
+
+    private static final byte INTENT = 1;
+    private static final byte MOVED = 2;
+    private static final byte DONE = 3;
+
+    // Header page: two 16-byte slots (generation, active region, CRC), then the two regions
+    private static final int HEADER_SIZE = 4096;
+    private static final int SLOT_SIZE = 512;
+
+    @Value("${app.routing.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.routing.journal.path:data/routing.journal}")
+    private String path;
+
+    @Value("${app.routing.journal.sizeMb:16}")
+    private int sizeMb;
+
+    @Value("${app.routing.journal.syncEvery:64}")
+    private int syncEvery;
+
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    private int regionSize;
+    private long generation;
+    private int activeRegion;
+    // Next write offset in the active region
+    private int position;
+    private long nextId = 1;
+    private int unsynced;
+    // Moves in flight, copied to the other region on compaction
+    private final Map<Long, Entry> open = new LinkedHashMap<>();
+    private List<Entry> pending = List.of();
+
+    /**
+     * One journaled move. For local moves detail is the source file; for live moves it is
+     * the Graph item and folder ids needed to repeat the move.
+     */
+    public static final class Entry {
+        public final long id;
+        public final long createdAt;
+        public final String mode;
+        public final String fileName;
+        public final String from;
+        public final String to;
+        public final String detail;
+        boolean moved;
+
+        Entry(long id, long createdAt, String mode, String fileName, String from, String to, String detail) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.mode = mode;
+            this.fileName = fileName;
+            this.from = from;
+            this.to = to;
+            this.detail = detail;
+        }
+
+        // True when MOVED was journaled, i.e. only the routing log row may be missing
+        public boolean isMoved() { return moved; }
+    }
+
+    @PostConstruct
+    synchronized void open() throws IOException {
+        if (!enabled) return;
+        Path file = Paths.get(path).toAbsolutePath();
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        lock = channel.tryLock();
+        if (lock == null) {
+            logger.warn("Routing journal {} is in use by another process; running without a journal", file);
+            channel.close();
+            channel = null;
+            return;
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) sizeMb * 1024 * 1024);
+        regionSize = (buffer.capacity() - HEADER_SIZE) / 2;
+        replay();
+        logger.info("Routing journal {}: {} unfinished move(s) to resume", file, pending.size());
+    }
+
+    public synchronized List<Entry> pending() {
+        return pending;
+    }
+
+    // Journals the intent to move a file; the returned id is passed to moved and done
+    public synchronized long intent(String mode, String fileName, String from, String to, String detail) {
+        if (buffer == null) return 0;
+        Entry entry = new Entry(nextId++, System.currentTimeMillis(), mode, fileName, from, to, detail);
+        open.put(entry.id, entry);
+        append(intentBody(entry));
+        return entry.id;
+    }
+
+    public synchronized void moved(long id) {
+        Entry entry = open.get(id);
+        if (entry == null) return;
+        entry.moved = true;
+        append(markerBody(MOVED, id));
+    }
+
+    public synchronized void done(long id) {
+        if (open.remove(id) == null) return;
+        append(markerBody(DONE, id));
+    }
+
+    // End of a run: the journal is forced to disk, and compacted if no move is in flight
+    public synchronized void checkpoint() {
+        if (buffer == null) return;
+        if (open.isEmpty() && position > regionStart(activeRegion)) {
+            compact(0);
+        } else {
+            sync();
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (buffer == null) return;
+        sync();
+        buffer = null;
+        lock.release();
+        channel.close();
+    }
+
+    private void replay() {
+        Map<Long, Entry> entries = new LinkedHashMap<>();
+        long maxId = 0;
+        boolean hasHeader = readHeader();
+        int at = regionStart(activeRegion);
+        int end = at + regionSize;
+        while (hasHeader && at + 4 <= end) {
+            int length = buffer.getInt(at);
+            if (length <= 0 || at + 8L + length > end) break;
+            ByteBuffer body = buffer.slice(at + 4, length);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(at + 4 + length)) {
+                logger.warn("Routing journal record at {} is torn; replay stops there", at);
+                break;
+            }
+            try {
+                byte type = body.get();
+                long id = body.getLong();
+                maxId = Math.max(maxId, id);
+                if (type == INTENT) {
+                    long createdAt = body.getLong();
+                    entries.put(id, new Entry(id, createdAt, readString(body), readString(body), readString(body),
+                            readString(body), readString(body)));
+                } else if (type == MOVED) {
+                    Entry entry = entries.get(id);
+                    if (entry != null) entry.moved = true;
+                } else if (type == DONE) {
+                    entries.remove(id);
+                }
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+            at += 8 + length;
+        }
+        nextId = maxId + 1;
+        pending = List.copyOf(entries.values());
+        // Unfinished moves stay open, so they survive until the recovery marks them done
+        open.putAll(entries);
+        compact(0);
+    }
+
+    private void append(byte[] body) {
+        if (position + body.length + 12 > regionStart(activeRegion) + regionSize) {
+            compact(body.length + 12);
+        }
+        position = writeRecord(position, body);
+        if (++unsynced >= syncEvery) sync();
+    }
+
+    // Writes one record and the terminator after it; returns the next record's offset
+    private int writeRecord(int at, byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        buffer.put(at + 4, body);
+        buffer.putInt(at + 4 + body.length, (int) crc.getValue());
+        buffer.putInt(at + 8 + body.length, 0);
+        // Length last: until it is set, replay sees the previous terminator here
+        buffer.putInt(at, body.length);
+        return at + 8 + body.length;
+    }
+
+    /**
+     * Copies the moves in flight to the inactive region, forces it, then switches the header to
+     * it. The active region is not touched, so it remains the journal until the switch is on disk.
+     */
+    private void compact(int headroom) {
+        int target = 1 - activeRegion;
+        int start = regionStart(target);
+        int end = start + regionSize;
+        int at = start;
+        buffer.putInt(at, 0);
+        for (Entry entry : open.values()) {
+            byte[] intent = intentBody(entry);
+            byte[] moved = entry.moved ? markerBody(MOVED, entry.id) : null;
+            int size = intent.length + 8 + (moved != null ? moved.length + 8 : 0);
+            if (at + size + 4 + headroom > end) {
+                throw new IllegalStateException("Routing journal is too small; raise app.routing.journal.sizeMb");
+            }
+            at = writeRecord(at, intent);
+            if (moved != null) at = writeRecord(at, moved);
+        }
+        buffer.force();
+        generation++;
+        int slot = (int) (generation % 2) * SLOT_SIZE;
+        buffer.putLong(slot, generation);
+        buffer.putInt(slot + 8, target);
+        buffer.putInt(slot + 12, headerCrc(generation, target));
+        buffer.force();
+        activeRegion = target;
+        position = at;
+        unsynced = 0;
+    }
+
+    // Picks the newest valid header slot; false for a new (or unreadable) journal
+    private boolean readHeader() {
+        boolean found = false;
+        for (int slot = 0; slot < 2 * SLOT_SIZE; slot += SLOT_SIZE) {
+            long slotGeneration = buffer.getLong(slot);
+            int region = buffer.getInt(slot + 8);
+            if (slotGeneration <= 0 || (region != 0 && region != 1)
+                    || buffer.getInt(slot + 12) != headerCrc(slotGeneration, region)) continue;
+            if (!found || slotGeneration > generation) {
+                generation = slotGeneration;
+                activeRegion = region;
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    private int regionStart(int region) {
+        return HEADER_SIZE + region * regionSize;
+    }
+
+    private static int headerCrc(long generation, int region) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(12).putLong(generation).putInt(region).array());
+        return (int) crc.getValue();
+    }
+
+    private void sync() {
+        buffer.force();
+        unsynced = 0;
+    }
+
+    private static byte[] intentBody(Entry entry) {
+        byte[][] strings = {utf8(entry.mode), utf8(entry.fileName), utf8(entry.from), utf8(entry.to), utf8(entry.detail)};
+        int size = 1 + 8 + 8;
+        for (byte[] s : strings) size += 4 + (s != null ? s.length : 0);
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.put(INTENT).putLong(entry.id).putLong(entry.createdAt);
+        for (byte[] s : strings) {
+            if (s == null) {
+                body.putInt(-1);
+            } else {
+                body.putInt(s.length).put(s);
+            }
+        }
+        return body.array();
+    }
+
+    private static byte[] markerBody(byte type, long id) {
+        return ByteBuffer.allocate(9).put(type).putLong(id).array();
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Null comes back as null, not "", so resume() sees the same entry that was journaled
+    private static String readString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length == -1) return null;
+        if (length < 0 || length > body.remaining()) throw new BufferUnderflowException();
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
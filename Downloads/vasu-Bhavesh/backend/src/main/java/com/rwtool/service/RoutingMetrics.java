@@ -0,0 +1,158 @@
+package com.rwtool.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Routing meters: files by prefix and result, move latency by prefix, the incoming backlog,
+ * queue depth and service time per routing pipeline stage, end-to-end time per file, and
+ * per-destination backlog and circuit state for live moves.
+ *
+ * Meters for a prefix are registered on first use and then looked up by the prefix string
+ * itself, so recording a file allocates nothing. Prefixes come from file names, so the number
+ * of distinct prefix tags is capped; files with further prefixes are counted under "other",
+ * whose meters are then read from a field without locking.
+ */
+@Component
+public class RoutingMetrics {
+
+    static final String NO_PREFIX = "none";
+    static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final Map<String, PrefixMeters> byPrefix = new ConcurrentHashMap<>();
+    // Set once the prefix cap is reached; unknown prefixes then go straight to these meters
+    private volatile PrefixMeters overflow;
+
+    @Value("${app.metrics.routing.maxPrefixes:100}")
+    private int maxPrefixes;
+
+    public RoutingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void moved(String prefix, long nanos) {
+        PrefixMeters meters = meters(prefix);
+        meters.moved.increment();
+        meters.move.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void skipped(String prefix) {
+        meters(prefix).skipped.increment();
+    }
+
+    public void failed(String prefix) {
+        meters(prefix).failed.increment();
+    }
+
+    // Files waiting in incoming, computed from source when scraped
+    public <T> void registerIncomingBacklog(T source, ToDoubleFunction<T> backlog) {
+        Gauge.builder("rwtool.routing.incoming.backlog", source, backlog)
+                .description("Files waiting in the incoming folder")
+                .baseUnit("files")
+                .register(registry);
+    }
+
+    // Time one pipeline stage spends on an item (for discover, on a whole listing)
+    public Timer stageTimer(String mode, String stage) {
+        return Timer.builder("rwtool.routing.stage.time")
+                .description("Service time of a routing pipeline stage")
+                .tags("mode", mode, "stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    // Time from a file's discovery until its routing log row is written
+    public Timer fileTimer(String mode) {
+        return Timer.builder("rwtool.routing.file.time")
+                .description("Time from discovering a file to logging its outcome")
+                .tags("mode", mode)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(registry);
+    }
+
+    public void registerStageQueue(String mode, String stage, Collection<?> queue) {
+        Gauge.builder("rwtool.routing.stage.queue", queue, Collection::size)
+                .description("Items waiting for a routing pipeline stage")
+                .tags("mode", mode, "stage", stage)
+                .baseUnit("files")
+                .register(registry);
+    }
+
+    // Live moves queued for a destination folder, and whether its circuit breaker is open (1) or not (0)
+    public <T> void registerDestinationGauges(String destination, T source, ToDoubleFunction<T> backlog,
+                                              ToDoubleFunction<T> open) {
+        Gauge.builder("rwtool.routing.destination.backlog", source, backlog)
+                .description("Moves waiting for a destination folder")
+                .tags("destination", destination)
+                .baseUnit("files")
+                .register(registry);
+        Gauge.builder("rwtool.routing.destination.open", source, open)
+                .description("1 while the destination's circuit breaker is open")
+                .tags("destination", destination)
+                .register(registry);
+    }
+
+    private PrefixMeters meters(String prefix) {
+        String key = prefix != null ? prefix : NO_PREFIX;
+        PrefixMeters meters = byPrefix.get(key);
+        if (meters != null) return meters;
+        PrefixMeters other = overflow;
+        return other != null ? other : create(key);
+    }
+
+    private synchronized PrefixMeters create(String key) {
+        PrefixMeters meters = byPrefix.get(key);
+        if (meters != null) return meters;
+        // Over the cap, the prefix is not remembered and later files skip this lock via overflow
+        if (byPrefix.size() >= maxPrefixes && !OTHER.equals(key)) {
+            overflow = create(OTHER);
+            return overflow;
+        }
+        meters = new PrefixMeters(registry, key);
+        byPrefix.put(key, meters);
+        return meters;
+    }
+
+    private static final class PrefixMeters {
+        final Counter moved;
+        final Counter skipped;
+        final Counter failed;
+        final Timer move;
+
+        PrefixMeters(MeterRegistry registry, String prefix) {
+            this.moved = files(registry, prefix, "moved");
+            this.skipped = files(registry, prefix, "skipped");
+            this.failed = files(registry, prefix, "error");
+            this.move = Timer.builder("rwtool.routing.move")
+                    .description("Time to move one file to its output folder")
+                    .tags("prefix", prefix)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry);
+        }
+
+        private static Counter files(MeterRegistry registry, String prefix, String result) {
+            return Counter.builder("rwtool.routing.files")
+                    .description("Files handled by routing runs")
+                    .tags("prefix", prefix, "result", result)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.rwtool.service;
+
+import com.rwtool.repository.RoutingPartitionLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates routing runs across instances sharing one database.
+ *
+ * The incoming folder is split into partitions by a hash of the file name, and an instance
+ * routes a file only while it holds a lease on that file's partition. Leases are rows in
+ * routing_partition_leases claimed with a conditional update, so they work on any database the
+ * app runs on. A run claims partitions one at a time and releases each when done, so concurrent
+ * runs divide the partitions between them. Each run (a {@link Session}) claims under its own
+ * owner token, so two runs on one instance exclude each other just as runs on different
+ * instances do. A lease is renewed while its partition is being worked; one that a run stops
+ * renewing (crash, long pause) expires after leaseMs and is taken over by the next run.
+ *
+ * Expiry is set and compared with the database clock, so instance clock skew does not matter.
+ */
+@Service
+public class RoutingPartitionLeases {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingPartitionLeases.class);
+
+    private final RoutingPartitionLeaseRepository repository;
+    private final String instanceId;
+
+    @Value("${app.routing.partitions.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.routing.partitions.count:16}")
+    private int partitions = 16;
+
+    @Value("${app.routing.partitions.leaseMs:60000}")
+    private long leaseMs = 60000;
+
+    public RoutingPartitionLeases(RoutingPartitionLeaseRepository repository,
+                                  @Value("${app.instance.id:}") String instanceId) {
+        this.repository = repository;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? defaultInstanceId() : instanceId;
+    }
+
+    // Creates any missing partition rows; rows another instance created first are left as they are
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        if (!enabled) return;
+        Set<Integer> existing = new HashSet<>(repository.findPartitionIds());
+        for (int p = 0; p < partitions; p++) {
+            if (existing.contains(p)) continue;
+            repository.insertIfAbsent(p);
+        }
+        logger.info("Routing partition leases: {} partitions, instance {}", partitions, instanceId);
+    }
+
+    // Leases are set in whole seconds of database time
+    private long leaseSeconds() {
+        return Math.max(1, (leaseMs + 999) / 1000);
+    }
+
+    public int partitionOf(String fileName) {
+        return enabled ? Math.floorMod(fileName.hashCode(), partitions) : 0;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public Session open() {
+        return new Session(instanceId + ":" + UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    /**
+     * The leases held by one routing run, shared by its pipeline threads. Close it to release
+     * what is still held.
+     */
+    public class Session implements AutoCloseable {
+
+        private final String owner;
+        // Partition -> when its lease was last claimed or renewed (System.nanoTime)
+        private final Map<Integer, Long> held = new HashMap<>();
+        private final Set<Integer> refused = new HashSet<>();
+
+        private Session(String owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * True while this run holds the partition: claims it on first use and renews it once a
+         * third of the lease has passed. A partition held elsewhere is not retried in this run.
+         */
+        public synchronized boolean acquire(int partition) {
+            if (!enabled) return true;
+            if (refused.contains(partition)) return false;
+            long now = System.nanoTime();
+            Long since = held.get(partition);
+            if (since != null) {
+                if (now - since < TimeUnit.MILLISECONDS.toNanos(leaseMs / 3)) return true;
+                if (repository.renew(partition, owner, leaseSeconds()) == 1) {
+                    held.put(partition, now);
+                    return true;
+                }
+                logger.warn("Lost routing partition {} to another run", partition);
+                held.remove(partition);
+                refused.add(partition);
+                return false;
+            }
+            if (claim(partition)) {
+                held.put(partition, now);
+                return true;
+            }
+            refused.add(partition);
+            return false;
+        }
+
+        // A run can start before ensurePartitions has created the rows
+        private boolean claim(int partition) {
+            if (repository.claim(partition, owner, leaseSeconds()) == 1) return true;
+            // The row may not exist yet; the insert never touches one another instance created and
+            // claimed meanwhile, and the conditional claim decides who gets it
+            repository.insertIfAbsent(partition);
+            return repository.claim(partition, owner, leaseSeconds()) == 1;
+        }
+
+        public synchronized void release(int partition) {
+            if (!enabled || held.remove(partition) == null) return;
+            try {
+                repository.release(partition, owner);
+            } catch (RuntimeException e) {
+                // The lease expires on its own
+                logger.warn("Could not release routing partition {}: {}", partition, e.getMessage());
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            for (Integer partition : List.copyOf(held.keySet())) {
+                release(partition);
+            }
+        }
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,70 @@
+package com.rwtool.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Builds the staged routing pipelines (local and live) with the configured pool sizes and
+ * their per-stage meters: rwtool.routing.stage.queue for queue depth and
+ * rwtool.routing.stage.time for service time, both tagged with mode and stage.
+ *
+ * Threads per stage come from app.routing.pipeline.&lt;stage&gt;.threads, so the stage that
+ * shows up as the bottleneck can be widened on its own.
+ */
+@Component
+public class RoutingPipelines {
+
+    public static final String DISCOVER = "discover";
+    public static final String CLASSIFY = "classify";
+    public static final String PREPARE = "prepare";
+    public static final String TRANSFER = "transfer";
+    public static final String LOG = "log";
+
+    private final RoutingMetrics metrics;
+    private final Environment environment;
+
+    @Value("${app.routing.pipeline.queueCapacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.routing.pipeline.partitionsInFlight:2}")
+    private int partitionsInFlight;
+
+    public RoutingPipelines(RoutingMetrics metrics, Environment environment) {
+        this.metrics = metrics;
+        this.environment = environment;
+    }
+
+    // Partitions a local run keeps queued at once; each one's lease is released when it drains
+    public int partitionsInFlight() {
+        return Math.max(1, partitionsInFlight);
+    }
+
+    public <T> StagedPipeline<T> create(String mode, BiConsumer<T, Exception> onFailure,
+                                        StagedPipeline.Step<T> classify, StagedPipeline.Step<T> prepare,
+                                        StagedPipeline.Step<T> transfer, StagedPipeline.Step<T> log) {
+        return create(mode, onFailure, classify, prepare, StagedPipeline.async(transfer), log);
+    }
+
+    // Transfer completes asynchronously, e.g. when moves are queued per destination
+    public <T> StagedPipeline<T> create(String mode, BiConsumer<T, Exception> onFailure,
+                                        StagedPipeline.Step<T> classify, StagedPipeline.Step<T> prepare,
+                                        StagedPipeline.AsyncStep<T> transfer, StagedPipeline.Step<T> log) {
+        StagedPipeline<T> pipeline = new StagedPipeline<>(onFailure);
+        addStage(pipeline, mode, CLASSIFY, 1, StagedPipeline.async(classify));
+        addStage(pipeline, mode, PREPARE, 1, StagedPipeline.async(prepare));
+        addStage(pipeline, mode, TRANSFER, 4, transfer);
+        addStage(pipeline, mode, LOG, 2, StagedPipeline.async(log));
+        return pipeline;
+    }
+
+    private <T> void addStage(StagedPipeline<T> pipeline, String mode, String stage, int defaultThreads,
+                              StagedPipeline.AsyncStep<T> step) {
+        int threads = environment.getProperty("app.routing.pipeline." + stage + ".threads", Integer.class, defaultThreads);
+        pipeline.addStage(stage, Math.max(1, threads), queueCapacity, step, metrics.stageTimer(mode, stage),
+                "routing-" + mode);
+        metrics.registerStageQueue(mode, stage, pipeline.queue(pipeline.stageCount() - 1));
+    }
+}
@@ -1,36 +1,125 @@
 package com.rwtool.service;
 
+import com.rwtool.jfr.DatabaseWriteEvent;
+import com.rwtool.jfr.RoutingFileEvent;
 import com.rwtool.model.PathConfig;
 import com.rwtool.model.RoutingLog;
 import com.rwtool.repository.PathConfigRepository;
 import com.rwtool.repository.RoutingLogRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 import com.rwtool.sharepoint.SharePointService;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.io.IOException;
+import java.time.Instant;
 import java.nio.file.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RoutingService {
+    private static final Logger logger = LoggerFactory.getLogger(RoutingService.class);
     private final PathConfigRepository pathConfigRepository;
     private final RoutingLogRepository routingLogRepository;
     private final SharePointService sharePointService;
+    private final RoutingMetrics routingMetrics;
+    private final RoutingPartitionLeases partitionLeases;
+    private final RoutingJournal journal;
+    private final RoutingPipelines pipelines;
+    private StagedPipeline<LocalTask> localPipeline;
+    private Timer discoverTimer;
+    private Timer fileTimer;
     @Value("${app.routing.mode:dry-run}")
     private String routingMode;
     @Value("${app.storage.local.baseDir:}")
     private String localBaseDir;
 
-    public RoutingService(PathConfigRepository pathConfigRepository, RoutingLogRepository routingLogRepository, SharePointService sharePointService) {
+    public RoutingService(PathConfigRepository pathConfigRepository, RoutingLogRepository routingLogRepository,
+                          SharePointService sharePointService, RoutingMetrics routingMetrics,
+                          RoutingPartitionLeases partitionLeases, RoutingJournal journal,
+                          RoutingPipelines pipelines) {
         this.pathConfigRepository = pathConfigRepository;
         this.routingLogRepository = routingLogRepository;
         this.sharePointService = sharePointService;
+        this.routingMetrics = routingMetrics;
+        this.partitionLeases = partitionLeases;
+        this.journal = journal;
+        this.pipelines = pipelines;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        routingMetrics.registerIncomingBacklog(this, RoutingService::incomingBacklog);
+    }
+
+    // Local runs list incoming themselves; the per-file steps run as pipeline stages
+    @PostConstruct
+    void createPipeline() {
+        localPipeline = pipelines.create("local", RoutingService::failed,
+                this::classify, this::prepare, this::transfer, this::log);
+        discoverTimer = routingMetrics.stageTimer("local", RoutingPipelines.DISCOVER);
+        fileTimer = routingMetrics.fileTimer("local");
+    }
+
+    @PreDestroy
+    void shutdownPipeline() {
+        localPipeline.shutdown();
+    }
+
+    /**
+     * Finishes the moves an interrupted run left in the routing journal: a move that had not
+     * happened is repeated, and the MOVED row is written unless the run got that far.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJournal() {
+        for (RoutingJournal.Entry entry : journal.pending()) {
+            try {
+                resume(entry);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not resume journaled move of {}: {}", entry.fileName, e.getMessage());
+                persistLog(entry.fileName, "ERROR", entry.from, entry.to, e.getMessage());
+            }
+            journal.done(entry.id);
+        }
+        journal.checkpoint();
+    }
+
+    private void resume(RoutingJournal.Entry entry) throws IOException {
+        boolean moved;
+        if ("live".equals(entry.mode)) {
+            moved = entry.isMoved() || sharePointService.repeatMove(entry.detail, entry.fileName);
+        } else {
+            Path source = Paths.get(entry.detail);
+            Path target = Paths.get(entry.to);
+            if (Files.exists(source)) {
+                Files.createDirectories(target.getParent());
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = Files.exists(target);
+        }
+        if (moved && !routingLogRepository.existsByFileNameAndActionAndToPathAndCreatedAtGreaterThanEqual(
+                entry.fileName, "MOVED", entry.to, Instant.ofEpochMilli(entry.createdAt))) {
+            persistLog(entry.fileName, "MOVED", entry.from, entry.to, "Recovered from routing journal");
+        }
+        logger.info("Resumed journaled move of {} ({})", entry.fileName, moved ? "moved" : "file gone");
     }
 
     // Stub: later integrate with Microsoft Graph to process incoming/ folder
@@ -64,29 +153,61 @@ public class RoutingService {
             res.put("reason", "file not found in incoming");
             return res;
         }
-        int sep = fileName.indexOf('_');
-        if (sep <= 0) {
+        try (RoutingPartitionLeases.Session leases = partitionLeases.open()) {
+            if (!leases.acquire(partitionLeases.partitionOf(fileName))) {
+                res.put("moved", false);
+                res.put("reason", "partition leased by another instance");
+                return res;
+            }
+            return routeSingleLocal(base, incoming, source, fileName);
+        }
+    }
+
+    private Map<String, Object> routeSingleLocal(Path base, Path incoming, Path source, String fileName) {
+        Map<String, Object> res = new HashMap<>();
+        RoutingFileEvent event = new RoutingFileEvent();
+        event.begin();
+        String prefix = extractPrefix(fileName);
+        if (prefix == null) {
             persistLog(fileName, "SKIPPED", incoming.toString(), "", "Missing prefix delimiter '_'");
+            routingMetrics.skipped(null);
+            event.record("local", fileName, null, "SKIPPED", sizeIfRecording(event, source));
             res.put("moved", false);
             res.put("reason", "missing prefix delimiter '_'");
             return res;
         }
-        String prefix = fileName.substring(0, sep);
         String outRel = detectOutputBase(prefix); // group-based mapping e.g., reports/Finance
         Path outDir = base.resolve(outRel.replace("/", java.io.File.separator));
+        long bytes = sizeIfRecording(event, source);
+        Path target = outDir.resolve(fileName);
+        long entry = journal.intent("local", fileName, incoming.toString(), target.toString(), source.toString());
         try {
             if (!Files.exists(outDir)) Files.createDirectories(outDir);
-            Path target = outDir.resolve(fileName);
+            long moveStart = System.nanoTime();
             Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            routingMetrics.moved(prefix, System.nanoTime() - moveStart);
+            journal.moved(entry);
             persistLog(fileName, "MOVED", incoming.toString(), target.toString(), null);
+            journal.done(entry);
+            event.record("local", fileName, prefix, "MOVED", bytes);
             res.put("moved", true);
             res.put("destination", target.toString());
             return res;
+        } catch (NoSuchFileException e) {
+            journal.done(entry);
+            res.put("moved", false);
+            res.put("reason", "file not found in incoming");
+            return res;
         } catch (IOException e) {
             persistLog(fileName, "ERROR", incoming.toString(), outDir.toString(), e.getMessage());
+            journal.done(entry);
+            routingMetrics.failed(prefix);
+            event.record("local", fileName, prefix, "ERROR", bytes);
             res.put("moved", false);
             res.put("reason", e.getMessage());
             return res;
+        } finally {
+            journal.checkpoint();
         }
     }
 
@@ -129,12 +250,11 @@ public class RoutingService {
         for (String name : fileNames) {
             if (name == null || name.trim().isEmpty()) continue;
             String trimmed = name.trim();
-            int sep = trimmed.indexOf('_');
-            if (sep <= 0) {
+            String prefix = extractPrefix(trimmed);
+            if (prefix == null) {
                 decisions.add(new DryRunDecision(trimmed, null, false, null, null, "Filename missing prefix delimiter '_'"));
                 continue;
             }
-            String prefix = trimmed.substring(0, sep);
             String outputBase = detectOutputBase(prefix);
             String destination = (outputBase.endsWith("/")) ? outputBase + trimmed : outputBase + "/" + trimmed;
             decisions.add(new DryRunDecision(trimmed, prefix, true, outputBase, destination, null));
@@ -187,62 +307,217 @@ public class RoutingService {
 
     private Map<String, Object> runLocalRouting() {
         Map<String, Object> summary = new HashMap<>();
-        int processed = 0;
-        int moved = 0;
-        int skipped = 0;
-        int errors = 0;
         if (localBaseDir == null || localBaseDir.trim().isEmpty()) {
-            summary.put("processed", processed);
-            summary.put("moved", moved);
-            summary.put("skipped", skipped);
-            summary.put("errors", errors);
+            summary.put("processed", 0);
+            summary.put("moved", 0);
+            summary.put("skipped", 0);
+            summary.put("errors", 0);
             return summary;
         }
         Path base = Paths.get(localBaseDir);
         Path incoming = base.resolve("incoming");
-        try {
+        LocalRun run = new LocalRun(base, incoming);
+        try (RoutingPartitionLeases.Session leases = partitionLeases.open()) {
+            run.leases = leases;
+            long discoverStart = System.nanoTime();
             if (!Files.exists(incoming)) {
                 Files.createDirectories(incoming);
             }
-            List<Path> files = Files.list(incoming)
-                    .filter(p -> Files.isRegularFile(p))
-                    .collect(Collectors.toList());
-            for (Path file : files) {
-                processed++;
-                String fileName = file.getFileName().toString();
-                int sep = fileName.indexOf('_');
-                if (sep <= 0) {
-                    skipped++;
-                    persistLog(fileName, "SKIPPED", incoming.toString(), "", "Missing prefix delimiter '_'");
-                    continue;
+            // Files grouped by partition; a partition leased by another instance is left to it
+            Map<Integer, List<Path>> byPartition;
+            try (Stream<Path> listing = Files.list(incoming)) {
+                byPartition = listing
+                        .filter(p -> Files.isRegularFile(p))
+                        .collect(Collectors.groupingBy(p -> partitionLeases.partitionOf(p.getFileName().toString())));
+            }
+            discoverTimer.record(System.nanoTime() - discoverStart, TimeUnit.NANOSECONDS);
+            List<Integer> order = new ArrayList<>(byPartition.keySet());
+            // Instances running at the same time start on different partitions
+            Collections.shuffle(order);
+            // Partitions whose files are in the pipeline; the oldest is drained and released first
+            ArrayDeque<Map.Entry<Integer, StagedPipeline<LocalTask>.Batch>> inFlight = new ArrayDeque<>();
+            for (Integer partition : order) {
+                while (inFlight.size() >= pipelines.partitionsInFlight()) {
+                    drain(inFlight.poll(), leases);
                 }
-                String prefix = fileName.substring(0, sep);
-                String outRel = detectOutputBase(prefix);
-                Path outDir = base.resolve(outRel.replace("/", java.io.File.separator));
-                if (!Files.exists(outDir)) {
-                    Files.createDirectories(outDir);
+                List<Path> files = byPartition.get(partition);
+                if (!leases.acquire(partition)) {
+                    run.deferred.addAndGet(files.size());
+                    continue;
                 }
-                Path target = outDir.resolve(fileName);
-                try {
-                    Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
-                    moved++;
-                    persistLog(fileName, "MOVED", incoming.toString(), target.toString(), null);
-                } catch (IOException ex) {
-                    errors++;
-                    persistLog(fileName, "ERROR", incoming.toString(), outDir.toString(), ex.getMessage());
+                StagedPipeline<LocalTask>.Batch batch = localPipeline.batch();
+                for (Path file : files) {
+                    batch.submit(new LocalTask(run, partition, file));
                 }
+                inFlight.add(Map.entry(partition, batch));
+            }
+            while (!inFlight.isEmpty()) {
+                drain(inFlight.poll(), leases);
             }
         } catch (IOException e) {
             // ignore here; counts remain
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            journal.checkpoint();
         }
-        summary.put("processed", processed);
-        summary.put("moved", moved);
-        summary.put("skipped", skipped);
-        summary.put("errors", errors);
+        summary.put("processed", run.processed.get());
+        summary.put("moved", run.moved.get());
+        summary.put("skipped", run.skipped.get());
+        summary.put("errors", run.errors.get());
+        summary.put("deferred", run.deferred.get());
         return summary;
     }
 
-    private String detectOutputBase(String rawPrefix) {
+    private static void drain(Map.Entry<Integer, StagedPipeline<LocalTask>.Batch> partition,
+                              RoutingPartitionLeases.Session leases) throws InterruptedException {
+        partition.getValue().await();
+        leases.release(partition.getKey());
+    }
+
+    // Pipeline stages for local routing; each returns at once for a file already settled
+
+    private void classify(LocalTask task) {
+        task.event.begin();
+        task.prefix = extractPrefix(task.fileName);
+        if (task.prefix == null) {
+            task.settle("SKIPPED", "Missing prefix delimiter '_'");
+            return;
+        }
+        String outRel = detectOutputBase(task.prefix);
+        task.outDir = task.run.base.resolve(outRel.replace("/", java.io.File.separator));
+        task.target = task.outDir.resolve(task.fileName);
+    }
+
+    private void prepare(LocalTask task) throws IOException {
+        if (task.action != null) return;
+        // Each output folder is checked once per run
+        if (task.run.preparedDirs.add(task.outDir) && !Files.exists(task.outDir)) {
+            Files.createDirectories(task.outDir);
+        }
+    }
+
+    private void transfer(LocalTask task) {
+        if (task.action != null) return;
+        if (!task.run.leases.acquire(task.partition)) {
+            task.settle("DEFERRED", null);
+            return;
+        }
+        task.bytes = sizeIfRecording(task.event, task.file);
+        task.entry = journal.intent("local", task.fileName, task.run.incoming.toString(), task.target.toString(),
+                task.file.toString());
+        try {
+            long moveStart = System.nanoTime();
+            Files.move(task.file, task.target, StandardCopyOption.REPLACE_EXISTING);
+            task.moveNanos = System.nanoTime() - moveStart;
+            journal.moved(task.entry);
+            task.settle("MOVED", null);
+        } catch (NoSuchFileException ex) {
+            // Gone since the listing: routed by a run that did not hold the lease
+            journal.done(task.entry);
+            task.settle("DEFERRED", null);
+        } catch (IOException ex) {
+            task.settle("ERROR", ex.getMessage());
+        }
+    }
+
+    private void log(LocalTask task) {
+        LocalRun run = task.run;
+        String from = run.incoming.toString();
+        switch (task.action) {
+            case "MOVED" -> {
+                persistLog(task.fileName, "MOVED", from, task.target.toString(), null);
+                journal.done(task.entry);
+                routingMetrics.moved(task.prefix, task.moveNanos);
+                run.processed.incrementAndGet();
+                run.moved.incrementAndGet();
+            }
+            case "SKIPPED" -> {
+                persistLog(task.fileName, "SKIPPED", from, "", task.message);
+                routingMetrics.skipped(task.prefix);
+                run.processed.incrementAndGet();
+                run.skipped.incrementAndGet();
+            }
+            case "ERROR" -> {
+                persistLog(task.fileName, "ERROR", from, task.outDir != null ? task.outDir.toString() : "", task.message);
+                journal.done(task.entry);
+                routingMetrics.failed(task.prefix);
+                run.processed.incrementAndGet();
+                run.errors.incrementAndGet();
+            }
+            default -> {
+                run.deferred.incrementAndGet();
+                return;
+            }
+        }
+        fileTimer.record(System.nanoTime() - task.startNanos, TimeUnit.NANOSECONDS);
+        task.event.record("local", task.fileName, task.prefix, task.action, task.bytes);
+    }
+
+    // A step threw; a failure while logging leaves the journal entry open for the next startup
+    private static void failed(LocalTask task, Exception e) {
+        if (task.action == null) {
+            task.settle("ERROR", e.getMessage());
+        }
+    }
+
+    /** State shared by the files of one local run. */
+    private static final class LocalRun {
+        final Path base;
+        final Path incoming;
+        final Set<Path> preparedDirs = ConcurrentHashMap.newKeySet();
+        final AtomicInteger processed = new AtomicInteger();
+        final AtomicInteger moved = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger deferred = new AtomicInteger();
+        RoutingPartitionLeases.Session leases;
+
+        LocalRun(Path base, Path incoming) {
+            this.base = base;
+            this.incoming = incoming;
+        }
+    }
+
+    /** One file on its way through the local pipeline; action is set once its outcome is known. */
+    private static final class LocalTask {
+        final LocalRun run;
+        final int partition;
+        final Path file;
+        final String fileName;
+        final RoutingFileEvent event = new RoutingFileEvent();
+        // Discovery time, for the end-to-end file timer
+        final long startNanos = System.nanoTime();
+        String prefix;
+        Path outDir;
+        Path target;
+        long bytes = -1;
+        long entry;
+        long moveNanos;
+        // MOVED | SKIPPED | ERROR | DEFERRED
+        String action;
+        String message;
+
+        LocalTask(LocalRun run, int partition, Path file) {
+            this.run = run;
+            this.partition = partition;
+            this.file = file;
+            this.fileName = file.getFileName().toString();
+        }
+
+        void settle(String action, String message) {
+            this.message = message;
+            this.action = action;
+        }
+    }
+
+    // Text before the first '_', or null if there is none (package-private for the benchmarks module)
+    static String extractPrefix(String fileName) {
+        int sep = fileName.indexOf('_');
+        return sep > 0 ? fileName.substring(0, sep) : null;
+    }
+
+    static String detectOutputBase(String rawPrefix) {
         if (rawPrefix == null || rawPrefix.isEmpty()) return "reports/Unmapped";
         String p = rawPrefix.trim();
         String lower = p.toLowerCase(Locale.ROOT);
@@ -258,7 +533,33 @@ public class RoutingService {
         return "reports/" + cap;
     }
 
+    // Files waiting in incoming for the backlog gauge; NaN (no sample) outside local mode
+    private double incomingBacklog() {
+        if (!"local".equalsIgnoreCase(routingMode) || localBaseDir == null || localBaseDir.trim().isEmpty()) {
+            return Double.NaN;
+        }
+        Path incoming = Paths.get(localBaseDir).resolve("incoming");
+        if (!Files.isDirectory(incoming)) return 0;
+        try (Stream<Path> files = Files.list(incoming)) {
+            return files.filter(Files::isRegularFile).count();
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+
+    // File size for the JFR event; skips the stat call when no recording wants the event
+    private static long sizeIfRecording(RoutingFileEvent event, Path file) {
+        if (!event.isEnabled()) return -1;
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
     private void persistLog(String fileName, String action, String from, String to, String message) {
+        DatabaseWriteEvent event = new DatabaseWriteEvent();
+        event.begin();
         RoutingLog log = new RoutingLog();
         log.setFileName(fileName);
         log.setAction(action);
@@ -266,5 +567,6 @@ public class RoutingService {
         log.setToPath(to);
         log.setMessage(message);
         routingLogRepository.save(log);
+        event.record("routing_logs", 1);
     }
 }
@@ -0,0 +1,176 @@
+package com.rwtool.service;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * A chain of stages, each with its own bounded queue and fixed thread pool. Every item passes
+ * through every stage in order; a stage that has nothing to do for an item (it was skipped or
+ * failed earlier) just returns. When a stage's queue is full, whoever hands it the next item
+ * waits, so a slow stage holds back the stages before it instead of letting work pile up.
+ *
+ * A stage may also hand an item off and finish it later (see {@link AsyncStep}); its thread is
+ * then free for the next item while the item waits elsewhere.
+ *
+ * Items are submitted through a {@link Batch}, which tracks when all of its items have left
+ * the last stage. Several batches (e.g. concurrent runs) can share one pipeline.
+ */
+public final class StagedPipeline<T> {
+
+    public interface Step<T> {
+        void process(T item) throws Exception;
+    }
+
+    /**
+     * A step that completes an item later: the item moves on to the next stage when done is
+     * run, from any thread. Service time then covers the whole wait.
+     */
+    public interface AsyncStep<T> {
+        void process(T item, Runnable done) throws Exception;
+    }
+
+    static <T> AsyncStep<T> async(Step<T> step) {
+        return (item, done) -> {
+            step.process(item);
+            done.run();
+        };
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final BiConsumer<T, Exception> onFailure;
+
+    /**
+     * @param onFailure called on the stage thread when a step throws; the item still moves on
+     *                  to the later stages, so the last one can record the failure
+     */
+    StagedPipeline(BiConsumer<T, Exception> onFailure) {
+        this.onFailure = onFailure;
+    }
+
+    void addStage(String name, int threads, int capacity, AsyncStep<T> step, Timer serviceTime, String threadPrefix) {
+        stages.add(new Stage(name, threads, capacity, step, serviceTime, threadPrefix));
+    }
+
+    int stageCount() {
+        return stages.size();
+    }
+
+    BlockingQueue<Runnable> queue(int stage) {
+        return stages.get(stage).executor.getQueue();
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    public void shutdown() {
+        for (Stage stage : stages) {
+            stage.executor.shutdownNow();
+        }
+    }
+
+    public final class Batch {
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // Blocks while the first stage's queue is full
+        public void submit(T item) {
+            pending.incrementAndGet();
+            try {
+                stages.get(0).enqueue(item, this, 0);
+            } catch (RejectedExecutionException e) {
+                completed();
+                throw e;
+            }
+        }
+
+        public void await() throws InterruptedException {
+            synchronized (this) {
+                while (pending.get() > 0) {
+                    wait();
+                }
+            }
+        }
+
+        private void completed() {
+            if (pending.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private final class Stage {
+        final String name;
+        final AsyncStep<T> step;
+        final Timer serviceTime;
+        final ThreadPoolExecutor executor;
+
+        Stage(String name, int threads, int capacity, AsyncStep<T> step, Timer serviceTime, String threadPrefix) {
+            this.name = name;
+            this.step = step;
+            this.serviceTime = serviceTime;
+            AtomicInteger count = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    r -> {
+                        Thread t = new Thread(r, threadPrefix + "-" + name + "-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    // Backpressure: the submitting thread waits for room instead of being rejected
+                    (r, pool) -> {
+                        if (pool.isShutdown()) throw new RejectedExecutionException("Pipeline stage " + name + " is shut down");
+                        try {
+                            pool.getQueue().put(r);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while waiting for stage " + name, e);
+                        }
+                    });
+        }
+
+        void enqueue(T item, Batch batch, int index) {
+            executor.execute(() -> run(item, batch, index));
+        }
+
+        private void run(T item, Batch batch, int index) {
+            long start = System.nanoTime();
+            AtomicBoolean finished = new AtomicBoolean();
+            Runnable done = () -> {
+                if (finished.compareAndSet(false, true)) {
+                    serviceTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    forward(item, batch, index);
+                }
+            };
+            try {
+                step.process(item, done);
+            } catch (Exception e) {
+                onFailure.accept(item, e);
+                done.run();
+            }
+        }
+
+        private void forward(T item, Batch batch, int index) {
+            if (index + 1 < stages.size()) {
+                try {
+                    stages.get(index + 1).enqueue(item, batch, index + 1);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; the item is dropped so the batch can still finish
+                }
+            }
+            batch.completed();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.rwtool.service;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,12 +18,24 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class StorageService {
     @Value("${app.storage.local.baseDir:}")
     private String localBaseDir;
 
+    // Imports into incoming, by source: upload, url or storage
+    private final ImportMeters uploadMeters;
+    private final ImportMeters urlMeters;
+    private final ImportMeters storageMeters;
+
+    public StorageService(MeterRegistry registry) {
+        this.uploadMeters = new ImportMeters(registry, "upload");
+        this.urlMeters = new ImportMeters(registry, "url");
+        this.storageMeters = new ImportMeters(registry, "storage");
+    }
+
     public String saveToIncoming(MultipartFile file, String overrideFileName) throws IOException {
         if (localBaseDir == null || localBaseDir.trim().isEmpty()) {
             throw new IllegalStateException("local baseDir not configured");
@@ -34,7 +49,12 @@ public class StorageService {
             Files.createDirectories(incoming);
         }
         Path target = incoming.resolve(name);
-        Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+        long start = System.nanoTime();
+        long bytes;
+        try (InputStream in = file.getInputStream()) {
+            bytes = Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        uploadMeters.record(bytes, System.nanoTime() - start);
         return target.toString();
     }
 
@@ -54,9 +74,12 @@ public class StorageService {
              Files.createDirectories(incoming);
          }
          Path target = incoming.resolve(name);
+         long start = System.nanoTime();
+         long bytes;
          try (InputStream in = new URL(fileUrl).openStream()) {
-             Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+             bytes = Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
          }
+         urlMeters.record(bytes, System.nanoTime() - start);
          return target.toString();
      }
 
@@ -116,9 +139,33 @@ public class StorageService {
              return res;
          }
          Path dest = incoming.resolve(fileName);
+         long start = System.nanoTime();
          Files.copy(src, dest, StandardCopyOption.REPLACE_EXISTING);
+         storageMeters.record(Files.size(dest), System.nanoTime() - start);
          res.put("imported", true);
          res.put("path", dest.toString());
          return res;
      }
+
+     private static final class ImportMeters {
+         private final DistributionSummary bytes;
+         private final Timer duration;
+
+         ImportMeters(MeterRegistry registry, String source) {
+             this.bytes = DistributionSummary.builder("rwtool.storage.import.size")
+                     .description("Size of files imported into incoming")
+                     .baseUnit("bytes")
+                     .tag("source", source)
+                     .register(registry);
+             this.duration = Timer.builder("rwtool.storage.import")
+                     .description("Time to copy a file into incoming")
+                     .tag("source", source)
+                     .register(registry);
+         }
+
+         void record(long size, long nanos) {
+             bytes.record(size);
+             duration.record(nanos, TimeUnit.NANOSECONDS);
+         }
+     }
 }
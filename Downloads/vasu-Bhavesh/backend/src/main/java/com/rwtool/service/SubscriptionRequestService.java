@@ -1,16 +1,33 @@
 package com.rwtool.service;
 
+import com.rwtool.config.SubscriptionIndexInitializer;
 import com.rwtool.dto.ApprovalDecisionDTO;
+import com.rwtool.dto.BulkReviewDTO;
+import com.rwtool.dto.BulkReviewResultDTO;
+import com.rwtool.dto.CursorPageResponse;
 import com.rwtool.dto.SubscriptionRequestDTO;
+import com.rwtool.dto.SubscriptionRequestSummary;
 import com.rwtool.model.SubscriptionRequest;
 import com.rwtool.repository.SubscriptionRequestRepository;
+import com.rwtool.repository.SubscriptionRequestSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -19,10 +36,35 @@ public class SubscriptionRequestService {
     @Autowired
     private SubscriptionRequestRepository subscriptionRequestRepository;
 
+    @Autowired
+    private SubscriptionStatsCache statsCache;
+
+    @Autowired
+    private UserActivityLogService auditLogService;
+
+    @Autowired
+    private EntitlementIndex entitlementIndex;
+
+    @Autowired
+    private SubscriptionIndexInitializer indexInitializer;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    // Keeps IN lists well under driver/database bind-parameter limits
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    private static final int MAX_QUEUE_PAGE_SIZE = 200;
+
     public List<SubscriptionRequest> getAllRequests() {
         return subscriptionRequestRepository.findAll();
     }
 
+    // Request counts keyed by status (PENDING, APPROVED, REJECTED), served from the stats cache
+    public Map<String, Long> getStatusCounts() {
+        return statsCache.getCounts();
+    }
+
     public List<SubscriptionRequest> getPendingRequests() {
         return subscriptionRequestRepository.findByStatus("PENDING");
     }
@@ -31,6 +73,64 @@ public class SubscriptionRequestService {
         return subscriptionRequestRepository.findByUserEmailOrderByRequestedDateDesc(userEmail);
     }
 
+    // Lightweight list views; full rows come from getRequestById
+    public List<SubscriptionRequestSummary> getRequestSummaries(String status) {
+        if (status == null || status.isBlank()) {
+            return subscriptionRequestRepository.findAllSummaries();
+        }
+        return subscriptionRequestRepository.findSummariesByStatus(status.trim().toUpperCase());
+    }
+
+    public List<SubscriptionRequestSummary> getRequestSummariesByUser(String userEmail) {
+        return subscriptionRequestRepository.findSummariesByUserEmail(userEmail);
+    }
+
+    /**
+     * Keyset-paginated review queue ordered by requestedDate (then id). The total is the cached
+     * count for the status, so paging never runs COUNT(*); the cache has no per-domain or
+     * per-department counts, so with either filter the total is left out (null).
+     */
+    public CursorPageResponse<SubscriptionRequestSummary> getQueue(String status, String domainId, String department,
+                                                                   String direction, String cursor, int pageSize) {
+        String queueStatus = status == null || status.isBlank() ? "PENDING" : status.trim().toUpperCase();
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int size = Math.min(Math.max(pageSize, 1), MAX_QUEUE_PAGE_SIZE);
+
+        Specification<SubscriptionRequest> spec = SubscriptionRequestSpecifications.hasStatus(queueStatus);
+        boolean filtered = false;
+        if (domainId != null && !domainId.isBlank()) {
+            filtered = true;
+            spec = spec.and(SubscriptionRequestSpecifications.hasDomainId(domainId));
+        }
+        if (department != null && !department.isBlank()) {
+            filtered = true;
+            spec = spec.and(SubscriptionRequestSpecifications.hasUserDepartment(department));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            spec = spec.and(SubscriptionRequestSpecifications.afterPosition(
+                    position[0].isEmpty() ? null : LocalDateTime.parse(position[0]), position[1], descending));
+        }
+
+        Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // Undated requests sort last ascending and first descending, matching afterPosition
+        Sort.Order byDate = descending
+                ? Sort.Order.desc("requestedDate").nullsFirst()
+                : Sort.Order.asc("requestedDate").nullsLast();
+        // One extra row tells us whether there is a next page
+        List<SubscriptionRequestSummary> rows = subscriptionRequestRepository.findSummaries(
+                spec, Sort.by(byDate, new Sort.Order(dir, "id")), size + 1);
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            SubscriptionRequestSummary last = rows.get(size - 1);
+            nextCursor = encodeCursor(last.getRequestedDate(), last.getId());
+        }
+        Long total = filtered ? null : statsCache.getCount(queueStatus);
+        return new CursorPageResponse<>(rows, nextCursor, total, size);
+    }
+
     public SubscriptionRequest getRequestById(String id) {
         return subscriptionRequestRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Subscription request not found with id: " + id));
@@ -38,27 +138,8 @@ public class SubscriptionRequestService {
 
     @Transactional
     public SubscriptionRequest createRequest(SubscriptionRequestDTO requestDTO) {
-        // Check if user already has a pending request for this domain
-        Optional<SubscriptionRequest> existingRequest = subscriptionRequestRepository
-                .findByUserEmailAndDomainIdAndStatus(
-                        requestDTO.getUserEmail(), 
-                        requestDTO.getDomainId(), 
-                        "PENDING"
-                );
-        
-        if (existingRequest.isPresent()) {
-            throw new RuntimeException("You already have a pending request for this domain");
-        }
-
         // Check if user already has approved access
-        Optional<SubscriptionRequest> approvedRequest = subscriptionRequestRepository
-                .findByUserEmailAndDomainIdAndStatus(
-                        requestDTO.getUserEmail(), 
-                        requestDTO.getDomainId(), 
-                        "APPROVED"
-                );
-        
-        if (approvedRequest.isPresent()) {
+        if (entitlementIndex.hasAccess(requestDTO.getUserEmail(), requestDTO.getDomainId())) {
             throw new RuntimeException("You already have approved access to this domain");
         }
 
@@ -74,37 +155,68 @@ public class SubscriptionRequestService {
         request.setStatus("PENDING");
         request.setRequestedDate(LocalDateTime.now());
 
-        return subscriptionRequestRepository.save(request);
+        SubscriptionRequest saved;
+        if (indexInitializer.isActiveRequestIndexPresent()) {
+            // The unique index rejects a second active request atomically, no pre-check needed
+            if (subscriptionRequestRepository.insertIfNoActiveRequest(request) == 0) {
+                throw new RuntimeException(entitlementIndex.hasAccess(request.getUserEmail(), request.getDomainId())
+                        ? "You already have approved access to this domain"
+                        : "You already have a pending request for this domain");
+            }
+            request.setVersion(0L);
+            saved = request;
+        } else {
+            // Check if user already has a pending request for this domain
+            Optional<SubscriptionRequest> existingRequest = subscriptionRequestRepository
+                    .findByUserEmailAndDomainIdAndStatus(
+                            requestDTO.getUserEmail(),
+                            requestDTO.getDomainId(),
+                            "PENDING"
+                    );
+
+            if (existingRequest.isPresent()) {
+                throw new RuntimeException("You already have a pending request for this domain");
+            }
+            saved = subscriptionRequestRepository.save(request);
+        }
+        afterCommit(() -> statsCache.recordTransition(null, "PENDING"));
+        return saved;
     }
 
     @Transactional
     public SubscriptionRequest approveRequest(String requestId) {
-        SubscriptionRequest request = getRequestById(requestId);
-        
-        if (!"PENDING".equals(request.getStatus())) {
-            throw new RuntimeException("Only pending requests can be approved");
-        }
-
-        request.setStatus("APPROVED");
-        request.setReviewedDate(LocalDateTime.now());
-        request.setRejectionReason(null);
-
-        return subscriptionRequestRepository.save(request);
+        SubscriptionRequest saved = transitionIfPending(requestId, "APPROVED", null,
+                "Only pending requests can be approved");
+        afterCommit(() -> {
+            statsCache.recordTransition("PENDING", "APPROVED");
+            entitlementIndex.grant(saved.getUserEmail(), saved.getDomainId());
+        });
+        return saved;
     }
 
     @Transactional
     public SubscriptionRequest rejectRequest(String requestId, String rejectionReason) {
-        SubscriptionRequest request = getRequestById(requestId);
-        
-        if (!"PENDING".equals(request.getStatus())) {
-            throw new RuntimeException("Only pending requests can be rejected");
-        }
-
-        request.setStatus("REJECTED");
-        request.setReviewedDate(LocalDateTime.now());
-        request.setRejectionReason(rejectionReason);
+        SubscriptionRequest saved = transitionIfPending(requestId, "REJECTED", rejectionReason,
+                "Only pending requests can be rejected");
+        afterCommit(() -> statsCache.recordTransition("PENDING", "REJECTED"));
+        return saved;
+    }
 
-        return subscriptionRequestRepository.save(request);
+    // One statement on PostgreSQL (UPDATE ... RETURNING); elsewhere a conditional update, then a read
+    private SubscriptionRequest transitionIfPending(String requestId, String newStatus, String rejectionReason,
+                                                    String notPendingMessage) {
+        LocalDateTime reviewedDate = LocalDateTime.now();
+        if (indexInitializer.isUpdateReturningSupported()) {
+            Optional<SubscriptionRequest> updated = subscriptionRequestRepository
+                    .transitionIfPendingReturning(requestId, newStatus, reviewedDate, rejectionReason);
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+        } else if (subscriptionRequestRepository.transitionIfPending(requestId, newStatus, reviewedDate, rejectionReason) > 0) {
+            return getRequestById(requestId);
+        }
+        getRequestById(requestId); // not found
+        throw new RuntimeException(notPendingMessage);
     }
 
     @Transactional
@@ -122,18 +234,133 @@ public class SubscriptionRequestService {
         }
     }
 
+    /**
+     * Approve or reject many pending requests at once: a locking read, one conditional
+     * set-based UPDATE and one batched audit insert per chunk of ids.
+     */
     @Transactional
-    public void cancelRequest(String requestId, String userEmail) {
-        SubscriptionRequest request = getRequestById(requestId);
-        
-        if (!request.getUserEmail().equals(userEmail)) {
-            throw new RuntimeException("You can only cancel your own requests");
+    public BulkReviewResultDTO bulkReview(BulkReviewDTO review, String adminEmail, String adminName) {
+        boolean approve;
+        if ("APPROVE".equalsIgnoreCase(review.getAction())) {
+            approve = true;
+        } else if ("REJECT".equalsIgnoreCase(review.getAction())) {
+            approve = false;
+        } else {
+            throw new RuntimeException("Invalid action. Must be APPROVE or REJECT");
+        }
+        if (review.getIds() == null || review.getIds().isEmpty()) {
+            throw new RuntimeException("At least one request id is required");
+        }
+
+        String newStatus = approve ? "APPROVED" : "REJECTED";
+        String reason = null;
+        if (!approve) {
+            reason = review.getRejectionReason();
+            if (reason == null || reason.trim().isEmpty()) {
+                reason = "Request rejected by admin";
+            }
+        }
+
+        BulkReviewResultDTO result = new BulkReviewResultDTO(newStatus);
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(review.getIds()));
+        LocalDateTime now = LocalDateTime.now();
+        List<String> auditDetails = new ArrayList<>();
+        List<SubscriptionRequestSummary> granted = new ArrayList<>();
+        int updated = 0;
+
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            Map<String, SubscriptionRequestSummary> found = new HashMap<>();
+            for (SubscriptionRequestSummary s : subscriptionRequestRepository.findSummariesByIdForUpdate(chunk)) {
+                found.put(s.getId(), s);
+            }
+
+            List<String> pendingIds = new ArrayList<>();
+            for (String id : chunk) {
+                SubscriptionRequestSummary s = found.get(id);
+                if (s == null) {
+                    result.getOutcomes().put(id, "NOT_FOUND");
+                } else if (!"PENDING".equals(s.getStatus())) {
+                    result.getOutcomes().put(id, "NOT_PENDING");
+                } else {
+                    pendingIds.add(id);
+                    if (approve) granted.add(s);
+                    result.getOutcomes().put(id, newStatus);
+                    auditDetails.add(approve
+                            ? "Approved subscription request for " + s.getUserEmail() + " to domain: " + s.getDomainName()
+                            : "Rejected subscription request for " + s.getUserEmail() + " to domain: " + s.getDomainName() + ". Reason: " + reason);
+                }
+            }
+            if (!pendingIds.isEmpty()) {
+                updated += subscriptionRequestRepository.updateStatusIfPending(pendingIds, newStatus, now, reason);
+            }
         }
-        
-        if (!"PENDING".equals(request.getStatus())) {
+
+        auditLogService.logSuccessBatch(
+                adminEmail != null ? adminEmail : "admin@rwtool.com",
+                adminName != null ? adminName : "Admin",
+                "Admin",
+                approve ? "USER_APPROVED" : "USER_REJECTED",
+                auditDetails);
+
+        result.setUpdated(updated);
+        int count = updated;
+        afterCommit(() -> {
+            statsCache.recordTransitions("PENDING", newStatus, count);
+            granted.forEach(s -> entitlementIndex.grant(s.getUserEmail(), s.getDomainId()));
+        });
+        return result;
+    }
+
+    @Transactional
+    public void cancelRequest(String requestId, String userEmail) {
+        if (subscriptionRequestRepository.deleteIfPending(requestId, userEmail) == 0) {
+            SubscriptionRequest request = getRequestById(requestId);
+
+            if (!request.getUserEmail().equals(userEmail)) {
+                throw new RuntimeException("You can only cancel your own requests");
+            }
             throw new RuntimeException("Only pending requests can be cancelled");
         }
+        afterCommit(() -> statsCache.recordTransition("PENDING", null));
+    }
 
-        subscriptionRequestRepository.delete(request);
+    // Approved domain ids for a user, served from the entitlement index
+    public Set<String> getApprovedDomainIds(String userEmail) {
+        return entitlementIndex.domainsFor(userEmail);
+    }
+
+    // An undated request gets an empty date part rather than the text "null"
+    private static String encodeCursor(LocalDateTime requestedDate, String id) {
+        String raw = (requestedDate != null ? requestedDate.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new IllegalArgumentException();
+            if (sep > 0) LocalDateTime.parse(raw.substring(0, sep));
+            return new String[]{raw.substring(0, sep), raw.substring(sep + 1)};
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // Caches must only see changes that actually committed
+    private void afterCommit(Runnable action) {
+        // Every caller changes the table; its ETag version moves in the same transaction
+        tableVersions.bump(TableVersions.SUBSCRIPTION_REQUESTS);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
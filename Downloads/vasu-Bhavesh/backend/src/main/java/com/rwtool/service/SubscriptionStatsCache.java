@@ -0,0 +1,119 @@
+package com.rwtool.service;
+
+import com.rwtool.repository.SubscriptionRequestRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-status subscription request counts, seeded from a single GROUP BY query and then
+ * adjusted in place by SubscriptionRequestService after each committed transition.
+ * Counts are re-seeded periodically so changes made by other instances converge; transitions
+ * recorded while the seeding query runs are replayed on top of its result.
+ */
+@Component
+public class SubscriptionStatsCache {
+
+    private final SubscriptionRequestRepository repository;
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+    private final Object refreshLock = new Object();
+
+    // Net change per status recorded while a refresh query is running, added to its counts
+    private Map<String, Long> changesDuringRefresh;
+    private volatile long loadedAt;
+    private volatile boolean loaded;
+
+    @Value("${app.subscriptions.stats.refreshMs:300000}")
+    private long refreshMs;
+
+    public SubscriptionStatsCache(SubscriptionRequestRepository repository) {
+        this.repository = repository;
+    }
+
+    public Map<String, Long> getCounts() {
+        ensureFresh();
+        Map<String, Long> snapshot = new HashMap<>();
+        counts.forEach((status, count) -> snapshot.put(status, count.get()));
+        return snapshot;
+    }
+
+    public long getCount(String status) {
+        ensureFresh();
+        AtomicLong count = counts.get(normalize(status));
+        return count != null ? count.get() : 0L;
+    }
+
+    public long getTotal() {
+        ensureFresh();
+        long total = 0;
+        for (AtomicLong count : counts.values()) total += count.get();
+        return total;
+    }
+
+    /**
+     * Record a committed status change. fromStatus is null for a new request,
+     * toStatus is null for a deleted one.
+     */
+    public void recordTransition(String fromStatus, String toStatus) {
+        recordTransitions(fromStatus, toStatus, 1);
+    }
+
+    public synchronized void recordTransitions(String fromStatus, String toStatus, long count) {
+        if (count == 0) return;
+        if (changesDuringRefresh != null) {
+            if (fromStatus != null) changesDuringRefresh.merge(normalize(fromStatus), -count, Long::sum);
+            if (toStatus != null) changesDuringRefresh.merge(normalize(toStatus), count, Long::sum);
+        }
+        if (!loaded) return; // the first refresh seeds from the database anyway
+        if (fromStatus != null) counter(fromStatus).addAndGet(-count);
+        if (toStatus != null) counter(toStatus).addAndGet(count);
+    }
+
+    public void refresh() {
+        synchronized (refreshLock) {
+            synchronized (this) {
+                changesDuringRefresh = new HashMap<>();
+            }
+            try {
+                Map<String, Long> fresh = new HashMap<>();
+                for (Object[] row : repository.countByStatus()) {
+                    fresh.merge(normalize((String) row[0]), ((Number) row[1]).longValue(), Long::sum);
+                }
+                synchronized (this) {
+                    changesDuringRefresh.forEach((status, delta) -> fresh.merge(status, delta, Long::sum));
+                    counts.keySet().retainAll(fresh.keySet());
+                    fresh.forEach((status, count) -> counter(status).set(count));
+                    loadedAt = System.currentTimeMillis();
+                    loaded = true;
+                }
+            } finally {
+                synchronized (this) {
+                    changesDuringRefresh = null;
+                }
+            }
+        }
+    }
+
+    // Callers that find the counts stale while another refresh runs wait for it instead of repeating it
+    private void ensureFresh() {
+        if (loaded && System.currentTimeMillis() - loadedAt <= refreshMs) return;
+        synchronized (refreshLock) {
+            if (!loaded || System.currentTimeMillis() - loadedAt > refreshMs) {
+                refresh();
+            }
+        }
+    }
+
+    private AtomicLong counter(String status) {
+        return counts.computeIfAbsent(normalize(status), s -> new AtomicLong());
+    }
+
+    private static String normalize(String status) {
+        return status == null ? "UNKNOWN" : status.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,49 @@
+package com.rwtool.service;
+
+import com.rwtool.repository.TableVersionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-table change counters used as ETags for catalog GETs, so an unchanged resource can be
+ * answered with 304 before any query or serialization runs.
+ *
+ * The tags are weak (W/"..."): Tomcat never gzips a response that carries a strong ETag, and
+ * If-None-Match uses weak comparison anyway, so a weak tag loses nothing for conditional GETs.
+ *
+ * Counters are rows in table_versions, bumped in the same transaction as the change itself,
+ * so every instance behind the load balancer sees a change as soon as it commits and hands
+ * out the same tag for the same data. Reading a tag is a primary key lookup.
+ */
+@Component
+public class TableVersions {
+
+    public static final String DOMAINS = "domains";
+    public static final String PATH_CONFIGS = "path_configs";
+    public static final String SUBSCRIPTION_REQUESTS = "subscription_requests";
+
+    private final TableVersionRepository repository;
+
+    public TableVersions(TableVersionRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void ensureCounters() {
+        for (String table : new String[]{DOMAINS, PATH_CONFIGS, SUBSCRIPTION_REQUESTS}) {
+            repository.insertIfAbsent(table);
+        }
+    }
+
+    public String etag(String table) {
+        return "W/\"" + table + "-" + repository.findVersion(table).orElse(0L) + "\"";
+    }
+
+    // Bumps the table's version in the current transaction, so it commits with the change
+    public void bump(String table) {
+        if (repository.increment(table) == 0) {
+            repository.insertIfAbsent(table);
+            repository.increment(table);
+        }
+    }
+}
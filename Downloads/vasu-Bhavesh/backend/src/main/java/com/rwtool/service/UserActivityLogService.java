@@ -1,21 +1,47 @@
 package com.rwtool.service;
 
+import com.rwtool.dto.AuditLogSummary;
+import com.rwtool.jfr.DatabaseWriteEvent;
 import com.rwtool.model.UserActivityLog;
 import com.rwtool.repository.UserActivityLogRepository;
+import com.rwtool.repository.UserActivityLogSpecifications;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class UserActivityLogService {
     
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp");
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO user_activity_logs (timestamp, user_email, user_name, user_role, action, details, status) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
     private final UserActivityLogRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
     
-    public UserActivityLogService(UserActivityLogRepository repository) {
+    public UserActivityLogService(UserActivityLogRepository repository, ApplicationEventPublisher eventPublisher,
+                                  JdbcTemplate jdbcTemplate) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
     }
     
     /**
@@ -24,8 +50,12 @@ public class UserActivityLogService {
     @Transactional
     public void logActivity(String userEmail, String userName, String userRole, 
                            String action, String details, String status) {
+        DatabaseWriteEvent event = new DatabaseWriteEvent();
+        event.begin();
         UserActivityLog log = new UserActivityLog(userEmail, userName, userRole, action, details, status);
         repository.save(log);
+        event.record("user_activity_logs", 1);
+        eventPublisher.publishEvent(new AuditLogCreatedEvent(log));
     }
     
     /**
@@ -37,6 +67,53 @@ public class UserActivityLogService {
         logActivity(userEmail, userName, userRole, action, details, "success");
     }
     
+    /**
+     * Log one successful activity per details entry for the same actor, as a single JDBC batch
+     */
+    @Transactional
+    public void logSuccessBatch(String userEmail, String userName, String userRole,
+                                String action, List<String> detailsList) {
+        if (detailsList.isEmpty()) return;
+        List<UserActivityLog> logs = new ArrayList<>(detailsList.size());
+        for (String details : detailsList) {
+            logs.add(new UserActivityLog(userEmail, userName, userRole, action, details, "success"));
+        }
+        DatabaseWriteEvent event = new DatabaseWriteEvent();
+        event.begin();
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    UserActivityLog log = logs.get(i);
+                    ps.setTimestamp(1, Timestamp.from(log.getTimestamp()));
+                    ps.setString(2, log.getUserEmail());
+                    ps.setString(3, log.getUserName());
+                    ps.setString(4, log.getUserRole());
+                    ps.setString(5, log.getAction());
+                    ps.setString(6, log.getDetails());
+                    ps.setString(7, log.getStatus());
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return logs.size();
+                }
+            },
+            keys);
+        event.record("user_activity_logs", logs.size());
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < logs.size(); i++) {
+            UserActivityLog log = logs.get(i);
+            if (i < keyList.size()) {
+                Object id = keyList.get(i).values().iterator().next();
+                log.setId(((Number) id).longValue());
+            }
+            eventPublisher.publishEvent(new AuditLogCreatedEvent(log));
+        }
+    }
+    
     /**
      * Log a failed activity
      */
@@ -49,106 +126,106 @@ public class UserActivityLogService {
     /**
      * Get all logs
      */
-    public List<UserActivityLog> getAllLogs() {
-        return repository.findAll();
+    public List<AuditLogSummary> getAllLogs() {
+        return repository.findSummaries(null, NEWEST_FIRST, 0);
     }
     
     /**
      * Get recent logs (last 100)
      */
-    public List<UserActivityLog> getRecentLogs(int limit) {
-        List<UserActivityLog> logs = repository.findRecentLogs();
-        return logs.size() > limit ? logs.subList(0, limit) : logs;
+    public List<AuditLogSummary> getRecentLogs(int limit) {
+        return repository.findSummaries(null, NEWEST_FIRST, limit);
+    }
+    
+    /**
+     * Get a single log with every column (detail view)
+     */
+    public Optional<UserActivityLog> getLogById(Long id) {
+        return repository.findById(id);
     }
     
     /**
      * Get logs by user email
      */
-    public List<UserActivityLog> getLogsByUser(String userEmail) {
-        return repository.findByUserEmailOrderByTimestampDesc(userEmail);
+    public List<AuditLogSummary> getLogsByUser(String userEmail) {
+        return repository.findSummaries(UserActivityLogSpecifications.hasUserEmail(userEmail), NEWEST_FIRST, 0);
     }
     
     /**
      * Get logs by action type
      */
-    public List<UserActivityLog> getLogsByAction(String action) {
-        return repository.findByActionOrderByTimestampDesc(action);
+    public List<AuditLogSummary> getLogsByAction(String action) {
+        return repository.findSummaries(UserActivityLogSpecifications.hasAction(action), NEWEST_FIRST, 0);
     }
     
     /**
      * Get logs by role
      */
-    public List<UserActivityLog> getLogsByRole(String userRole) {
-        return repository.findByUserRoleOrderByTimestampDesc(userRole);
+    public List<AuditLogSummary> getLogsByRole(String userRole) {
+        return repository.findSummaries(UserActivityLogSpecifications.hasUserRole(userRole), NEWEST_FIRST, 0);
     }
     
     /**
      * Get logs by date range
      */
-    public List<UserActivityLog> getLogsByDateRange(String dateRange) {
+    public List<AuditLogSummary> getLogsByDateRange(String dateRange) {
         Instant endDate = Instant.now();
-        Instant startDate;
-        
-        switch (dateRange.toLowerCase()) {
-            case "today":
-                startDate = endDate.truncatedTo(ChronoUnit.DAYS);
-                break;
-            case "7days":
-                startDate = endDate.minus(7, ChronoUnit.DAYS);
-                break;
-            case "30days":
-                startDate = endDate.minus(30, ChronoUnit.DAYS);
-                break;
-            case "90days":
-                startDate = endDate.minus(90, ChronoUnit.DAYS);
-                break;
-            default:
-                startDate = endDate.minus(7, ChronoUnit.DAYS);
-        }
+        Instant startDate = resolveStartDate(dateRange, endDate);
         
-        return repository.findByTimestampBetweenOrderByTimestampDesc(startDate, endDate);
+        return repository.findSummaries(
+            UserActivityLogSpecifications.timestampBetween(startDate, endDate), NEWEST_FIRST, 0);
     }
     
     /**
      * Get logs with filters
      */
-    public List<UserActivityLog> getLogsWithFilters(String userRole, String action, 
-                                                     String status, String dateRange) {
+    public List<AuditLogSummary> getLogsWithFilters(String userRole, String action, 
+                                                    String status, String dateRange) {
         Instant endDate = Instant.now();
-        Instant startDate;
+        Instant startDate = resolveStartDate(dateRange, endDate);
         
+        // Convert "All Users" and "All Actions" to null for query
+        String roleFilter = normalizeFilter(userRole, "All Users");
+        String actionFilter = normalizeFilter(action, "All Actions");
+        String statusFilter = normalizeFilter(status, "All Status");
+        
+        return repository.findSummaries(
+            UserActivityLogSpecifications.withFilters(roleFilter, actionFilter, statusFilter, startDate, endDate),
+            NEWEST_FIRST, 0);
+    }
+    
+    /**
+     * Search logs
+     */
+    public List<AuditLogSummary> searchLogs(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return getAllLogs();
+        }
+        return repository.findSummaries(
+            UserActivityLogSpecifications.matchesSearchTerm(searchTerm.trim()), NEWEST_FIRST, 0);
+    }
+    
+    /**
+     * Resolve the start of a named date range ("today", "7days", "30days", "90days")
+     */
+    static Instant resolveStartDate(String dateRange, Instant endDate) {
         switch (dateRange != null ? dateRange.toLowerCase() : "7days") {
             case "today":
-                startDate = endDate.truncatedTo(ChronoUnit.DAYS);
-                break;
-            case "7days":
-                startDate = endDate.minus(7, ChronoUnit.DAYS);
-                break;
+                return endDate.truncatedTo(ChronoUnit.DAYS);
             case "30days":
-                startDate = endDate.minus(30, ChronoUnit.DAYS);
-                break;
+                return endDate.minus(30, ChronoUnit.DAYS);
             case "90days":
-                startDate = endDate.minus(90, ChronoUnit.DAYS);
-                break;
+                return endDate.minus(90, ChronoUnit.DAYS);
+            case "7days":
             default:
-                startDate = endDate.minus(7, ChronoUnit.DAYS);
+                return endDate.minus(7, ChronoUnit.DAYS);
         }
-        
-        // Convert "All Users" and "All Actions" to null for query
-        String roleFilter = (userRole != null && !userRole.equals("All Users")) ? userRole : null;
-        String actionFilter = (action != null && !action.equals("All Actions")) ? action : null;
-        String statusFilter = (status != null && !status.equals("All Status")) ? status : null;
-        
-        return repository.findByFilters(roleFilter, actionFilter, statusFilter, startDate, endDate);
     }
     
     /**
-     * Search logs
+     * Map the UI's "All ..." placeholder values to null (no filter)
      */
-    public List<UserActivityLog> searchLogs(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return repository.findRecentLogs();
-        }
-        return repository.searchLogs(searchTerm.trim());
+    static String normalizeFilter(String value, String allValue) {
+        return (value != null && !value.equals(allValue)) ? value : null;
     }
 }
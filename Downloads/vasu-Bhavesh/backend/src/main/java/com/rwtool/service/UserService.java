@@ -0,0 +1,40 @@
+package com.rwtool.service;
+
+import com.rwtool.config.CacheConfig;
+import com.rwtool.model.User;
+import com.rwtool.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+public class UserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    public Optional<User> getUserById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    // Unknown emails are not cached, so a later signup is visible immediately
+    @Cacheable(value = CacheConfig.USER_BY_EMAIL, key = "#email", unless = "#result == null")
+    public Optional<User> getUserByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    @Transactional
+    @CacheEvict(value = CacheConfig.USER_BY_EMAIL, key = "#user.email")
+    public User save(User user) {
+        User savedUser = userRepository.save(user);
+        userStatusCache.invalidate(savedUser.getEmail());
+        return savedUser;
+    }
+}
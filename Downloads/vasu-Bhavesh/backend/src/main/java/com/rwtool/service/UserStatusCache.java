@@ -0,0 +1,61 @@
+package com.rwtool.service;
+
+import com.rwtool.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of whether a user account is active, so authenticated requests do not
+ * need a users table lookup each time. UserController invalidates an entry when it changes
+ * the user; the TTL bounds how long a change made elsewhere takes to apply.
+ */
+@Component
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.auth.userStatus.ttlMs:30000}")
+    private long ttlMs;
+
+    @Value("${app.auth.userStatus.maxEntries:10000}")
+    private int maxEntries;
+
+    public UserStatusCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Unknown users count as inactive
+    public boolean isActive(String email) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.active;
+        }
+        boolean active = userRepository.findActiveByEmail(email).orElse(false);
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAt <= now);
+        }
+        if (entries.size() < maxEntries) {
+            entries.put(email, new Entry(active, now + ttlMs));
+        }
+        return active;
+    }
+
+    public void invalidate(String email) {
+        if (email != null) entries.remove(email);
+    }
+
+    private static class Entry {
+        final boolean active;
+        final long expiresAt;
+
+        Entry(boolean active, long expiresAt) {
+            this.active = active;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.rwtool.sharepoint;
+
+import com.rwtool.service.RoutingMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Per-destination work queues for live moves, so one slow or throttled destination folder
+ * cannot hold up the others.
+ *
+ * Each destination has its own queue and its own executor of at most maxConcurrent threads
+ * (idle threads exit), so a destination that stalls ties up only its own threads and never
+ * those of another folder. Graph calls have connect and read timeouts, so a stalled move ends
+ * as a failure. Each destination also has a circuit breaker: after failureThreshold failed moves in a row, or when Graph
+ * throttles it, the destination is left alone for openMs (or the Retry-After Graph sent). Its
+ * queued and new work is rejected meanwhile, leaving those files in incoming for a later run.
+ * After the pause a single trial move decides whether the circuit closes again.
+ *
+ * Backlog and circuit state per destination are published as rwtool.routing.destination.backlog
+ * and rwtool.routing.destination.open.
+ */
+@Component
+public class DestinationBulkheads {
+
+    private static final Logger logger = LoggerFactory.getLogger(DestinationBulkheads.class);
+
+    /** How a move went, as far as the destination's health is concerned. */
+    public enum Outcome { OK, FAILED }
+
+    public interface Work {
+        Outcome run();
+    }
+
+    private final RoutingMetrics metrics;
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Value("${app.routing.bulkhead.maxConcurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.routing.bulkhead.maxQueued:10000}")
+    private int maxQueued;
+
+    @Value("${app.routing.bulkhead.failureThreshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.routing.bulkhead.openMs:30000}")
+    private long openMs;
+
+    public DestinationBulkheads(RoutingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Queues work for a destination. done runs once the work has run or been rejected; rejected
+     * gets the reason first when the destination is backing off or its queue is full.
+     */
+    public void submit(String destination, Work work, Consumer<String> rejected, Runnable done) {
+        destination(destination).submit(new Job(work, rejected, done));
+    }
+
+    // The destination asked to be left alone (e.g. HTTP 429 with Retry-After)
+    public void backOff(String destination, long millis) {
+        destination(destination).open(Math.max(millis, 0), "throttled");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Destination destination : destinations.values()) {
+            destination.workers.shutdownNow();
+        }
+    }
+
+    private Destination destination(String name) {
+        Destination destination = destinations.get(name);
+        return destination != null ? destination : destinations.computeIfAbsent(name, this::create);
+    }
+
+    private Destination create(String name) {
+        Destination destination = new Destination(name);
+        metrics.registerDestinationGauges(name, destination, Destination::backlog, Destination::openGauge);
+        return destination;
+    }
+
+    private record Job(Work work, Consumer<String> rejected, Runnable done) {}
+
+    private final class Destination {
+        private final String name;
+        private final ArrayDeque<Job> queue = new ArrayDeque<>();
+        // Never busier than maxConcurrent: pump starts at most that many jobs at a time
+        private final ThreadPoolExecutor workers;
+        private int running;
+        private int consecutiveFailures;
+        // Circuit open until this time; a trial move runs once it has passed
+        private long openUntil;
+        private boolean trialRunning;
+
+        Destination(String name) {
+            this.name = name;
+            int threads = Math.max(1, maxConcurrent);
+            this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "routing-destination-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            workers.allowCoreThreadTimeOut(true);
+        }
+
+        void submit(Job job) {
+            String reason = null;
+            synchronized (this) {
+                if (openUntil > System.currentTimeMillis()) {
+                    reason = "Destination " + name + " is backing off";
+                } else if (queue.size() >= maxQueued) {
+                    reason = "Destination " + name + " has " + queue.size() + " moves queued";
+                } else {
+                    queue.add(job);
+                }
+            }
+            if (reason != null) {
+                reject(job, reason);
+            } else {
+                pump();
+            }
+        }
+
+        // Starts queued work while this destination is under its concurrency limit
+        private void pump() {
+            List<Job> start = new ArrayList<>();
+            List<Job> rejected = new ArrayList<>();
+            synchronized (this) {
+                if (openUntil > System.currentTimeMillis()) {
+                    rejected.addAll(queue);
+                    queue.clear();
+                } else if (openUntil > 0) {
+                    // Half open: one trial move at a time until one succeeds
+                    if (!trialRunning && running == 0 && !queue.isEmpty()) {
+                        trialRunning = true;
+                        running++;
+                        start.add(queue.poll());
+                    }
+                } else {
+                    while (running < maxConcurrent && !queue.isEmpty()) {
+                        running++;
+                        start.add(queue.poll());
+                    }
+                }
+            }
+            for (Job job : rejected) {
+                reject(job, "Destination " + name + " is backing off");
+            }
+            for (Job job : start) {
+                workers.execute(() -> run(job));
+            }
+        }
+
+        private void run(Job job) {
+            Outcome outcome = Outcome.FAILED;
+            try {
+                outcome = job.work().run();
+            } finally {
+                completed(outcome);
+                job.done().run();
+                pump();
+            }
+        }
+
+        private void completed(Outcome outcome) {
+            synchronized (this) {
+                running--;
+                trialRunning = false;
+                if (outcome == Outcome.OK) {
+                    consecutiveFailures = 0;
+                    if (openUntil > 0 && openUntil <= System.currentTimeMillis()) {
+                        openUntil = 0;
+                        logger.info("Destination {} recovered; circuit closed", name);
+                    }
+                    return;
+                }
+                consecutiveFailures++;
+                // Already backing off (throttled), or closed and still under the threshold
+                if (openUntil > System.currentTimeMillis()) return;
+                if (openUntil == 0 && consecutiveFailures < failureThreshold) return;
+            }
+            open(openMs, consecutiveFailures + " failed moves in a row");
+        }
+
+        // Never shortens a pause already in force, e.g. a longer Retry-After
+        void open(long millis, String why) {
+            long pause = millis > 0 ? millis : openMs;
+            synchronized (this) {
+                openUntil = Math.max(openUntil, System.currentTimeMillis() + pause);
+            }
+            logger.warn("Destination {} {}; circuit open for {} ms", name, why, pause);
+        }
+
+        private void reject(Job job, String reason) {
+            try {
+                job.rejected().accept(reason);
+            } finally {
+                job.done().run();
+            }
+        }
+
+        synchronized double backlog() {
+            return queue.size();
+        }
+
+        synchronized double openGauge() {
+            return openUntil > System.currentTimeMillis() ? 1 : 0;
+        }
+    }
+}
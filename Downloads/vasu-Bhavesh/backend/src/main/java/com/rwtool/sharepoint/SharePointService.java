@@ -1,15 +1,32 @@
 package com.rwtool.sharepoint;
 
 import com.rwtool.graph.GraphAuthService;
+import com.rwtool.graph.GraphHttp;
+import com.rwtool.graph.GraphMetrics;
+import com.rwtool.jfr.GraphCallEvent;
+import com.rwtool.jfr.RoutingFileEvent;
 import com.rwtool.model.PathConfig;
+import com.rwtool.service.RoutingJournal;
+import com.rwtool.service.RoutingMetrics;
+import com.rwtool.service.RoutingPartitionLeases;
+import com.rwtool.service.RoutingPipelines;
+import com.rwtool.service.StagedPipeline;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,36 +37,74 @@ public class SharePointService {
     }
 
     private final GraphAuthService auth;
-    private final RestTemplate http = new RestTemplate();
+    private final GraphMetrics graphMetrics;
+    private final RoutingMetrics routingMetrics;
+    private final RoutingJournal journal;
+    private final DestinationBulkheads bulkheads;
+    private final RoutingPartitionLeases partitionLeases;
+    private final StagedPipeline<LiveTask> livePipeline;
+    private final Timer discoverTimer;
+    private final Timer fileTimer;
+    private final RestTemplate http;
 
     @Value("${app.storage.incoming.shareLink:}")
     private String incomingShareLink;
     @Value("${app.storage.reports.shareLink:}")
     private String reportsShareLink;
 
-    public SharePointService(GraphAuthService auth) {
+    public SharePointService(GraphAuthService auth, GraphMetrics graphMetrics, RoutingMetrics routingMetrics,
+                             RoutingJournal journal, RoutingPipelines pipelines, DestinationBulkheads bulkheads,
+                             RoutingPartitionLeases partitionLeases,
+                             @Value("${app.msgraph.connectTimeoutMs:10000}") long connectTimeoutMs,
+                             @Value("${app.msgraph.readTimeoutMs:60000}") long readTimeoutMs) {
         this.auth = auth;
+        // Timeouts turn a stalled destination into failures its circuit breaker can count
+        this.http = GraphHttp.restTemplate(connectTimeoutMs, readTimeoutMs);
+        this.graphMetrics = graphMetrics;
+        this.routingMetrics = routingMetrics;
+        this.journal = journal;
+        this.bulkheads = bulkheads;
+        this.partitionLeases = partitionLeases;
+        this.livePipeline = pipelines.create("live", SharePointService::failed,
+                this::classify, this::prepare, this::transfer, this::log);
+        this.discoverTimer = routingMetrics.stageTimer("live", RoutingPipelines.DISCOVER);
+        this.fileTimer = routingMetrics.fileTimer("live");
     }
 
+    @PreDestroy
+    void shutdownPipeline() {
+        livePipeline.shutdown();
+    }
+
+    /**
+     * Routes the incoming files whose partition this instance can lease; the rest are left for
+     * the instance that holds them. The lease is checked again right before each move, since a
+     * move can wait in its destination's queue for longer than a lease lasts, and each partition
+     * is released once its files are done.
+     */
     public Map<String, Object> runLiveRouting(List<PathConfig> configs, LogWriter logger) {
         Map<String, Object> summary = new HashMap<>();
-        int processed = 0, moved = 0, skipped = 0, errors = 0;
         if (incomingShareLink == null || incomingShareLink.isBlank() || reportsShareLink == null || reportsShareLink.isBlank()) {
             summary.put("processed", 0); summary.put("moved", 0); summary.put("skipped", 0); summary.put("errors", 0);
             return summary;
         }
-        try {
+        LiveRun run = new LiveRun(logger);
+        try (RoutingPartitionLeases.Session leases = partitionLeases.open()) {
+            run.leases = leases;
+            long discoverStart = System.nanoTime();
             // Resolve share links
-            DriveItemRef incoming = resolveShare(incomingShareLink);
-            DriveItemRef reportsRoot = resolveShare(reportsShareLink);
+            run.incoming = resolveShare(incomingShareLink);
+            run.reportsRoot = resolveShare(reportsShareLink);
 
             // Build active mapping by prefix (case-insensitive)
-            Map<String, PathConfig> active = configs.stream()
+            run.active = configs.stream()
                     .filter(pc -> pc.getPrefix() != null && pc.getStatus() != null && pc.getStatus().equalsIgnoreCase("Active"))
                     .collect(Collectors.toMap(pc -> pc.getPrefix().toLowerCase(Locale.ROOT), pc -> pc, (a,b)->a));
 
             // List files under incoming
-            List<Map<String, Object>> children = listChildren(incoming.driveId, incoming.itemId);
+            List<Map<String, Object>> children = listChildren(run.incoming.driveId, run.incoming.itemId);
+            discoverTimer.record(System.nanoTime() - discoverStart, TimeUnit.NANOSECONDS);
+            List<LiveTask> tasks = new ArrayList<>();
             for (Map<String,Object> item : children) {
                 String name = (String) item.get("name");
                 Map<String, Object> fileFacet = (Map<String, Object>) item.get("file");
@@ -57,42 +112,231 @@ public class SharePointService {
                     // skip folders
                     continue;
                 }
-                processed++;
-                if (name == null || !name.contains("__")) {
-                    skipped++;
-                    logger.write(name, "SKIPPED", "incoming", "", "Missing prefix delimiter");
-                    continue;
-                }
-                String prefix = name.substring(0, name.indexOf("__"));
-                PathConfig pc = active.getOrDefault(prefix.toLowerCase(Locale.ROOT), null);
-                if (pc == null) {
-                    skipped++;
-                    logger.write(name, "SKIPPED", "incoming", "", "No active mapping for prefix");
+                // Files without a name are skipped by classify and need no lease
+                int partition = name != null ? partitionLeases.partitionOf(name) : -1;
+                if (partition >= 0 && !leases.acquire(partition)) {
+                    run.deferred.incrementAndGet();
                     continue;
                 }
-                String relOut = normalizeRelativeToReports(pc.getOutputPath());
-                // Ensure destination folder exists under reports root
-                String destFolderId = ensureFolderPath(reportsRoot.driveId, reportsRoot.itemId, relOut);
-                try {
-                    // Move file; note incoming drive may differ from reports drive
-                    moveItem(item, incoming.driveId, destFolderId, reportsRoot.driveId, name);
-                    moved++;
-                    logger.write(name, "MOVED", "incoming", relOut, null);
-                } catch (Exception ex) {
-                    errors++;
-                    logger.write(name, "ERROR", "incoming", relOut, ex.getMessage());
-                }
+                tasks.add(new LiveTask(run, item, name, partition));
+            }
+            // Counted before submitting, so a partition is not released while its files are still being queued
+            for (LiveTask task : tasks) {
+                if (task.partition >= 0) run.remaining.computeIfAbsent(task.partition, p -> new AtomicInteger()).incrementAndGet();
+            }
+            StagedPipeline<LiveTask>.Batch batch = livePipeline.batch();
+            for (LiveTask task : tasks) {
+                batch.submit(task);
             }
+            batch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             // overall error; count as errors but keep response
+        } finally {
+            journal.checkpoint();
         }
-        summary.put("processed", processed);
-        summary.put("moved", moved);
-        summary.put("skipped", skipped);
-        summary.put("errors", errors);
+        summary.put("processed", run.processed.get());
+        summary.put("moved", run.moved.get());
+        summary.put("skipped", run.skipped.get());
+        summary.put("errors", run.errors.get());
+        summary.put("deferred", run.deferred.get());
         return summary;
     }
 
+    // Pipeline stages for live routing; each returns at once for a file already settled
+
+    private void classify(LiveTask task) {
+        task.event.begin();
+        String name = task.name;
+        if (name == null || !name.contains("__")) {
+            task.settle("SKIPPED", "Missing prefix delimiter");
+            return;
+        }
+        task.prefix = name.substring(0, name.indexOf("__"));
+        PathConfig pc = task.run.active.getOrDefault(task.prefix.toLowerCase(Locale.ROOT), null);
+        if (pc == null) {
+            task.settle("SKIPPED", "No active mapping for prefix");
+            return;
+        }
+        task.relOut = normalizeRelativeToReports(pc.getOutputPath());
+    }
+
+    private void prepare(LiveTask task) {
+        if (task.action != null) return;
+        // Ensure destination folder exists under reports root, resolved once per folder and run
+        DriveItemRef reportsRoot = task.run.reportsRoot;
+        task.destFolderId = task.run.folders.computeIfAbsent(task.relOut,
+                relOut -> ensureFolderPath(reportsRoot.driveId, reportsRoot.itemId, relOut));
+    }
+
+    // Moves are queued per destination folder, so a slow or throttled one only holds up its own files
+    private void transfer(LiveTask task, Runnable done) {
+        if (task.action != null) {
+            done.run();
+            return;
+        }
+        bulkheads.submit(task.relOut, () -> move(task),
+                reason -> task.settle("DEFERRED", reason), done);
+    }
+
+    private DestinationBulkheads.Outcome move(LiveTask task) {
+        LiveRun run = task.run;
+        if (task.partition >= 0 && !run.leases.acquire(task.partition)) {
+            // Lease lost while queued; the file belongs to the instance that took it over
+            task.settle("DEFERRED", null);
+            return DestinationBulkheads.Outcome.OK;
+        }
+        String itemId = (String) task.item.get("id");
+        task.entry = journal.intent("live", task.name, "incoming", task.relOut,
+                String.join("|", run.incoming.driveId, itemId, task.destFolderId, run.reportsRoot.driveId));
+        try {
+            // Move file; note incoming drive may differ from reports drive
+            long moveStart = System.nanoTime();
+            moveItem(itemId, run.incoming.driveId, task.destFolderId, run.reportsRoot.driveId, task.name);
+            task.moveNanos = System.nanoTime() - moveStart;
+            journal.moved(task.entry);
+            task.settle("MOVED", null);
+            return DestinationBulkheads.Outcome.OK;
+        } catch (HttpClientErrorException.NotFound ex) {
+            // Moved since the listing by a run that did not hold the lease
+            journal.done(task.entry);
+            task.settle("DEFERRED", null);
+            return DestinationBulkheads.Outcome.OK;
+        } catch (HttpClientErrorException.TooManyRequests ex) {
+            // Not moved; the file stays in incoming for a run after the back-off
+            bulkheads.backOff(task.relOut, retryAfterMillis(ex));
+            journal.done(task.entry);
+            task.settle("DEFERRED", null);
+            return DestinationBulkheads.Outcome.FAILED;
+        } catch (HttpServerErrorException | ResourceAccessException ex) {
+            task.settle("ERROR", ex.getMessage());
+            return DestinationBulkheads.Outcome.FAILED;
+        } catch (Exception ex) {
+            // Rejected for this file (e.g. name conflict, permissions); the destination is fine
+            task.settle("ERROR", ex.getMessage());
+            return DestinationBulkheads.Outcome.OK;
+        }
+    }
+
+    // Retry-After in seconds, 0 when Graph sent none
+    private static long retryAfterMillis(HttpStatusCodeException ex) {
+        String retryAfter = ex.getResponseHeaders() != null ? ex.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+        try {
+            return retryAfter != null ? Long.parseLong(retryAfter.trim()) * 1000 : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void log(LiveTask task) {
+        try {
+            record(task);
+        } finally {
+            task.run.finished(task.partition);
+        }
+    }
+
+    private void record(LiveTask task) {
+        LiveRun run = task.run;
+        switch (task.action) {
+            case "MOVED" -> {
+                run.logger.write(task.name, "MOVED", "incoming", task.relOut, null);
+                journal.done(task.entry);
+                routingMetrics.moved(task.prefix, task.moveNanos);
+                run.processed.incrementAndGet();
+                run.moved.incrementAndGet();
+            }
+            case "SKIPPED" -> {
+                run.logger.write(task.name, "SKIPPED", "incoming", "", task.message);
+                routingMetrics.skipped(task.prefix);
+                run.processed.incrementAndGet();
+                run.skipped.incrementAndGet();
+            }
+            case "ERROR" -> {
+                run.logger.write(task.name, "ERROR", "incoming", task.relOut, task.message);
+                journal.done(task.entry);
+                routingMetrics.failed(task.prefix);
+                run.processed.incrementAndGet();
+                run.errors.incrementAndGet();
+            }
+            default -> {
+                run.deferred.incrementAndGet();
+                return;
+            }
+        }
+        fileTimer.record(System.nanoTime() - task.startNanos, TimeUnit.NANOSECONDS);
+        task.event.record("live", task.name, task.prefix, task.action, task.bytes);
+    }
+
+    // A step threw; a failure while logging leaves the journal entry open for the next startup
+    private static void failed(LiveTask task, Exception e) {
+        if (task.action == null) {
+            task.settle("ERROR", e.getMessage());
+        }
+    }
+
+    /** State shared by the files of one live run. */
+    private static final class LiveRun {
+        final LogWriter logger;
+        final Map<String, String> folders = new ConcurrentHashMap<>();
+        final AtomicInteger processed = new AtomicInteger();
+        final AtomicInteger moved = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger deferred = new AtomicInteger();
+        // Files of each partition still in the pipeline
+        final Map<Integer, AtomicInteger> remaining = new ConcurrentHashMap<>();
+        RoutingPartitionLeases.Session leases;
+        DriveItemRef incoming;
+        DriveItemRef reportsRoot;
+        Map<String, PathConfig> active;
+
+        LiveRun(LogWriter logger) {
+            this.logger = logger;
+        }
+
+        void finished(int partition) {
+            AtomicInteger left = partition >= 0 ? remaining.get(partition) : null;
+            if (left != null && left.decrementAndGet() == 0) {
+                leases.release(partition);
+            }
+        }
+    }
+
+    /** One incoming item on its way through the live pipeline; action is set once its outcome is known. */
+    private static final class LiveTask {
+        final LiveRun run;
+        final Map<String, Object> item;
+        final String name;
+        final int partition;
+        final long bytes;
+        final RoutingFileEvent event = new RoutingFileEvent();
+        // Discovery time, for the end-to-end file timer
+        final long startNanos = System.nanoTime();
+        String prefix;
+        String relOut;
+        String destFolderId;
+        long entry;
+        long moveNanos;
+        // MOVED | SKIPPED | ERROR | DEFERRED
+        String action;
+        String message;
+
+        LiveTask(LiveRun run, Map<String, Object> item, String name, int partition) {
+            this.run = run;
+            this.item = item;
+            this.name = name;
+            this.partition = partition;
+            this.bytes = item.get("size") instanceof Number size ? size.longValue() : -1;
+        }
+
+        void settle(String action, String message) {
+            this.message = message;
+            this.action = action;
+        }
+    }
+
     private static class DriveItemRef {
         String driveId;
         String itemId;
@@ -101,7 +345,7 @@ public class SharePointService {
     private DriveItemRef resolveShare(String shareLink) {
         String encoded = encodeSharingUrl(shareLink);
         String url = "https://graph.microsoft.com/v1.0/shares/" + encoded + "/driveItem?$select=id,remoteItem,driveId,parentReference";
-        ResponseEntity<Map> resp = http.exchange(url, HttpMethod.GET, authHeaders(), Map.class);
+        ResponseEntity<Map> resp = exchange("shares.driveItem", url, HttpMethod.GET, authHeaders());
         Map<String, Object> body = resp.getBody();
         if (body == null) throw new RuntimeException("Failed to resolve share link");
         Map<String, Object> remoteItem = (Map<String, Object>) body.get("remoteItem");
@@ -122,7 +366,7 @@ public class SharePointService {
         return ref;
     }
 
-    private String normalizeRelativeToReports(String outputPath) {
+    static String normalizeRelativeToReports(String outputPath) {
         if (outputPath == null) return "";
         String p = outputPath.replace("\\", "/");
         if (p.startsWith("/")) p = p.substring(1);
@@ -133,8 +377,8 @@ public class SharePointService {
     }
 
     private List<Map<String, Object>> listChildren(String driveId, String itemId) {
-        String url = "https://graph.microsoft.com/v1.0/drives/"+driveId+"/items/"+itemId+"/children?$select=id,name,folder,file,parentReference";
-        ResponseEntity<Map> resp = http.exchange(url, HttpMethod.GET, authHeaders(), Map.class);
+        String url = "https://graph.microsoft.com/v1.0/drives/"+driveId+"/items/"+itemId+"/children?$select=id,name,size,folder,file,parentReference";
+        ResponseEntity<Map> resp = exchange("items.children", url, HttpMethod.GET, authHeaders());
         Map<String, Object> body = resp.getBody();
         if (body == null) return Collections.emptyList();
         List<Map<String, Object>> value = (List<Map<String, Object>>) body.get("value");
@@ -173,14 +417,29 @@ public class SharePointService {
         body.put("name", name);
         body.put("folder", new HashMap<>());
         body.put("@microsoft.graph.conflictBehavior", "replace");
-        ResponseEntity<Map> resp = http.exchange(url, HttpMethod.POST, authHeaders(body), Map.class);
+        ResponseEntity<Map> resp = exchange("items.createFolder", url, HttpMethod.POST, authHeaders(body));
         Map<String, Object> created = resp.getBody();
         if (created == null) throw new RuntimeException("Failed to create folder: " + name);
         return (String) created.get("id");
     }
 
-    private void moveItem(Map<String, Object> item, String fromDriveId, String toParentId, String toDriveId, String name) {
-        String itemId = (String) item.get("id");
+    /**
+     * Repeats a move journaled by an interrupted live run; detail is the journal entry's
+     * "fromDriveId|itemId|toParentId|toDriveId". Moving an item that is already in place
+     * succeeds, so this is safe whether or not the first attempt went through.
+     * @return false if the item no longer exists
+     */
+    public boolean repeatMove(String detail, String name) {
+        String[] ids = detail.split("\\|", -1);
+        try {
+            moveItem(ids[1], ids[0], ids[2], ids[3], name);
+            return true;
+        } catch (HttpClientErrorException.NotFound e) {
+            return false;
+        }
+    }
+
+    private void moveItem(String itemId, String fromDriveId, String toParentId, String toDriveId, String name) {
         String url = "https://graph.microsoft.com/v1.0/drives/"+fromDriveId+"/items/"+itemId;
         Map<String, Object> parentRef = new HashMap<>();
         parentRef.put("id", toParentId);
@@ -190,7 +449,26 @@ public class SharePointService {
         Map<String, Object> body = new HashMap<>();
         body.put("parentReference", parentRef);
         body.put("name", name);
-        http.exchange(url, HttpMethod.PATCH, authHeaders(body), Map.class);
+        exchange("items.move", url, HttpMethod.PATCH, authHeaders(body));
+    }
+
+    // Graph request recorded as a GraphCallEvent and timer; endpoint names the kind of call, without ids
+    private ResponseEntity<Map> exchange(String endpoint, String url, HttpMethod method, HttpEntity<?> entity) {
+        GraphCallEvent event = new GraphCallEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int status = 0;
+        try {
+            ResponseEntity<Map> resp = http.exchange(url, method, entity, Map.class);
+            status = resp.getStatusCode().value();
+            return resp;
+        } catch (HttpStatusCodeException e) {
+            status = e.getStatusCode().value();
+            throw e;
+        } finally {
+            graphMetrics.record(endpoint, method.name(), status, System.nanoTime() - start);
+            event.record(method.name(), endpoint, status);
+        }
     }
 
     private HttpEntity<Map<String, Object>> authHeaders(Map<String, Object> body) {
@@ -206,7 +484,7 @@ public class SharePointService {
         return new HttpEntity<>(headers);
     }
 
-    private String encodeSharingUrl(String url) {
+    static String encodeSharingUrl(String url) {
         String b64 = Base64.getEncoder().encodeToString(url.getBytes(StandardCharsets.UTF_8))
                 .replace('+', '-')
                 .replace('/', '_')
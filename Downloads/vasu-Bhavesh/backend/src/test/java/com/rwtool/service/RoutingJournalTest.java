@@ -0,0 +1,153 @@
+package com.rwtool.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingJournalTest {
+
+    // Header layout, as in RoutingJournal
+    private static final int HEADER_SIZE = 4096;
+    private static final int SLOT_SIZE = 512;
+
+    @TempDir
+    Path dir;
+
+    private final List<RoutingJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() throws IOException {
+        for (RoutingJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void replayReturnsUnfinishedMovesWithTheirState() throws IOException {
+        RoutingJournal journal = open();
+        long pendingMove = journal.intent("local", "a.pdf", "/in", "/out/a.pdf", "/in/a.pdf");
+        long movedOnly = journal.intent("live", "b.pdf", null, "folder-b", null);
+        journal.moved(movedOnly);
+        long finished = journal.intent("local", "c.pdf", "/in", "/out/c.pdf", "/in/c.pdf");
+        journal.moved(finished);
+        journal.done(finished);
+        journal.close();
+
+        RoutingJournal reopened = open();
+        List<RoutingJournal.Entry> pending = reopened.pending();
+        assertEquals(2, pending.size());
+
+        RoutingJournal.Entry a = pending.get(0);
+        assertEquals(pendingMove, a.id);
+        assertEquals("local", a.mode);
+        assertEquals("a.pdf", a.fileName);
+        assertEquals("/in", a.from);
+        assertEquals("/out/a.pdf", a.to);
+        assertEquals("/in/a.pdf", a.detail);
+        assertFalse(a.isMoved());
+
+        RoutingJournal.Entry b = pending.get(1);
+        assertEquals(movedOnly, b.id);
+        assertTrue(b.isMoved());
+        assertNull(b.from, "null strings are replayed as null");
+        assertNull(b.detail, "null strings are replayed as null");
+
+        assertTrue(reopened.intent("local", "d.pdf", "/in", "/out/d.pdf", "/in/d.pdf") > finished,
+                "ids continue after the replayed ones");
+    }
+
+    @Test
+    void replayStopsAtATornRecord() throws IOException {
+        RoutingJournal journal = open();
+        journal.intent("local", "a.pdf", "/in", "/out/a.pdf", "/in/a.pdf");
+        int tornAt = (int) ReflectionTestUtils.getField(journal, "position");
+        journal.intent("local", "b.pdf", "/in", "/out/b.pdf", "/in/b.pdf");
+        journal.close();
+
+        // Damage the body of the second record, as a write cut short by a crash would
+        try (FileChannel file = FileChannel.open(journalFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            file.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF}), tornAt + 4 + 20);
+        }
+
+        List<RoutingJournal.Entry> pending = open().pending();
+        assertEquals(1, pending.size());
+        assertEquals("a.pdf", pending.get(0).fileName);
+    }
+
+    @Test
+    void crashDuringCompactionKeepsTheOldRegion() throws IOException {
+        RoutingJournal journal = open();
+        journal.intent("local", "a.pdf", "/in", "/out/a.pdf", "/in/a.pdf");
+        int activeRegion = (int) ReflectionTestUtils.getField(journal, "activeRegion");
+        int regionSize = (int) ReflectionTestUtils.getField(journal, "regionSize");
+        long generation = (long) ReflectionTestUtils.getField(journal, "generation");
+        journal.close();
+
+        try (FileChannel file = FileChannel.open(journalFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A compaction that had written part of the other region when the process died
+            int otherRegion = HEADER_SIZE + (1 - activeRegion) * regionSize;
+            ByteBuffer garbage = ByteBuffer.allocate(64);
+            garbage.putInt(40);
+            while (garbage.hasRemaining()) garbage.put((byte) 0x5A);
+            garbage.flip();
+            file.write(garbage, otherRegion);
+
+            // ... and had started, but not finished, switching the header to it
+            ByteBuffer slot = ByteBuffer.allocate(16).putLong(generation + 1).putInt(1 - activeRegion).putInt(0);
+            slot.flip();
+            file.write(slot, ((generation + 1) % 2) * SLOT_SIZE);
+        }
+
+        List<RoutingJournal.Entry> pending = open().pending();
+        assertEquals(1, pending.size());
+        assertEquals("a.pdf", pending.get(0).fileName);
+    }
+
+    @Test
+    void compactionWhenTheRegionFillsKeepsOpenMoves() throws IOException {
+        RoutingJournal journal = open();
+        long longRunning = journal.intent("live", "slow.pdf", "/in", "folder", "item:folder");
+        int regionSize = (int) ReflectionTestUtils.getField(journal, "regionSize");
+        // Enough finished moves to fill the region several times over
+        int moves = regionSize / 40 * 3;
+        for (int i = 0; i < moves; i++) {
+            long id = journal.intent("local", "f" + i + ".pdf", "/in", "/out", "/in/f" + i + ".pdf");
+            journal.moved(id);
+            journal.done(id);
+        }
+        journal.close();
+
+        List<RoutingJournal.Entry> pending = open().pending();
+        assertEquals(1, pending.size());
+        assertEquals(longRunning, pending.get(0).id);
+    }
+
+    private RoutingJournal open() throws IOException {
+        RoutingJournal journal = new RoutingJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "path", journalFile().toString());
+        ReflectionTestUtils.setField(journal, "sizeMb", 1);
+        ReflectionTestUtils.setField(journal, "syncEvery", 64);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private Path journalFile() {
+        return dir.resolve("routing.journal");
+    }
+}
@@ -2,6 +2,44 @@ import axios from 'axios';
 
 const API_BASE_URL = 'http://localhost:8080/api/auth';
 
+// Refresh this long before the access token expires, so a request in flight does not race it
+const REFRESH_MARGIN_MS = 60 * 1000;
+
+// One refresh at a time: concurrent callers wait for the same request
+let refreshPromise = null;
+
+/**
+ * Store the tokens and user info from an AuthResponse in localStorage
+ */
+const storeSession = (data) => {
+    localStorage.setItem('token', data.token);
+    if (data.refreshToken) {
+        localStorage.setItem('refreshToken', data.refreshToken);
+    }
+    if (data.expiresIn) {
+        localStorage.setItem('tokenExpiresAt', String(Date.now() + data.expiresIn * 1000));
+    }
+    if (data.email) {
+        localStorage.setItem('user', JSON.stringify({
+            id: data.id,
+            email: data.email,
+            fullName: data.fullName,
+            role: data.role,
+            phoneNumber: data.phoneNumber,
+            domain: data.domain
+        }));
+    }
+};
+
+const clearSession = () => {
+    localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
+    localStorage.removeItem('tokenExpiresAt');
+    localStorage.removeItem('user');
+};
+
+const isAuthUrl = (url) => !!url && url.startsWith(API_BASE_URL);
+
 const authService = {
     /**
      * Sign up a new user
@@ -17,17 +55,9 @@ const authService = {
                 role: signupData.role.toUpperCase() // USER, ADMIN, OPS
             });
             
-            // Store token and user info in localStorage
+            // Store tokens and user info in localStorage
             if (response.data.token) {
-                localStorage.setItem('token', response.data.token);
-                localStorage.setItem('user', JSON.stringify({
-                    id: response.data.id,
-                    email: response.data.email,
-                    fullName: response.data.fullName,
-                    role: response.data.role,
-                    phoneNumber: response.data.phoneNumber,
-                    domain: response.data.domain
-                }));
+                storeSession(response.data);
             }
             
             return response.data;
@@ -50,17 +80,9 @@ const authService = {
                 password: loginData.password
             });
             
-            // Store token and user info in localStorage
+            // Store tokens and user info in localStorage
             if (response.data.token) {
-                localStorage.setItem('token', response.data.token);
-                localStorage.setItem('user', JSON.stringify({
-                    id: response.data.id,
-                    email: response.data.email,
-                    fullName: response.data.fullName,
-                    role: response.data.role,
-                    phoneNumber: response.data.phoneNumber,
-                    domain: response.data.domain
-                }));
+                storeSession(response.data);
             }
             
             return response.data;
@@ -74,11 +96,43 @@ const authService = {
     },
 
     /**
-     * Logout user
+     * Logout user. The session is cleared locally right away; the server is asked to revoke
+     * the refresh token and the current access token in the background.
      */
     logout: () => {
-        localStorage.removeItem('token');
-        localStorage.removeItem('user');
+        const token = localStorage.getItem('token');
+        const refreshToken = localStorage.getItem('refreshToken');
+        clearSession();
+        if (token || refreshToken) {
+            axios.post(`${API_BASE_URL}/logout`, { refreshToken },
+                token ? { headers: { Authorization: `Bearer ${token}` } } : undefined)
+                .catch((error) => console.error('Logout error:', error));
+        }
+    },
+
+    /**
+     * Exchange the stored refresh token for a new access token and refresh token.
+     * Clears the session and rejects if the refresh token is missing, expired or revoked.
+     */
+    refresh: () => {
+        if (!refreshPromise) {
+            const refreshToken = localStorage.getItem('refreshToken');
+            refreshPromise = (refreshToken
+                ? axios.post(`${API_BASE_URL}/refresh`, { refreshToken })
+                : Promise.reject(new Error('No refresh token')))
+                .then((response) => {
+                    storeSession(response.data);
+                    return response.data.token;
+                })
+                .catch((error) => {
+                    clearSession();
+                    throw error;
+                })
+                .finally(() => {
+                    refreshPromise = null;
+                });
+        }
+        return refreshPromise;
     },
 
     /**
@@ -111,4 +165,36 @@ const authService = {
     }
 };
 
+// Attach the access token to API calls, refreshing it first when it is about to expire
+axios.interceptors.request.use(async (config) => {
+    if (isAuthUrl(config.url) || !localStorage.getItem('token')) {
+        return config;
+    }
+    const expiresAt = Number(localStorage.getItem('tokenExpiresAt') || 0);
+    if (expiresAt && Date.now() > expiresAt - REFRESH_MARGIN_MS && localStorage.getItem('refreshToken')) {
+        try {
+            await authService.refresh();
+        } catch (e) {
+            // Session is gone; send the request without a token and let the server decide
+        }
+    }
+    const token = localStorage.getItem('token');
+    if (token) {
+        config.headers.Authorization = `Bearer ${token}`;
+    }
+    return config;
+});
+
+// A 401 on an API call means the access token was rejected: refresh once and retry
+axios.interceptors.response.use(undefined, async (error) => {
+    const config = error.config;
+    if (error.response && error.response.status === 401 && config && !config._retried
+            && !isAuthUrl(config.url) && localStorage.getItem('refreshToken')) {
+        config._retried = true;
+        await authService.refresh();
+        return axios(config);
+    }
+    throw error;
+});
+
 export default authService;